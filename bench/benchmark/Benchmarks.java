@@ -0,0 +1,47 @@
+package benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+
+import db.DB;
+import gui.utils.FormattingBenchmarks;
+import model.analytics.AnalyticsBenchmarks;
+import model.dao.impl.DaoBenchmarks;
+import model.dao.impl.RowMappingBenchmarks;
+
+/*
+ * Runs the benchmark groups named on the command line: mapping, format,
+ * analytics, dao. Without arguments it runs mapping and format, which need no
+ * database; analytics needs none either but takes longer.
+ * The dao group needs a scratch database named by -Dbench.dbProperties (see
+ * DaoBenchmarks) and uses -Dbench.sellers / -Dbench.departments for the data.
+ *
+ *   java -Dbench.dbProperties=bench-db.properties -cp bin:bench-bin benchmark.Benchmarks mapping format dao
+ */
+public class Benchmarks {
+
+	public static void main(String[] args) throws Exception {
+		List<String> groups = Arrays.asList(args.length > 0 ? args : new String[] { "mapping", "format" });
+		System.out.println("java " + System.getProperty("java.version") + ", "
+				+ Runtime.getRuntime().availableProcessors() + " processor(s), groups " + groups);
+		Harness harness = new Harness();
+		if (groups.contains("mapping")) {
+			RowMappingBenchmarks.run(harness);
+		}
+		if (groups.contains("format")) {
+			FormattingBenchmarks.run(harness);
+		}
+		if (groups.contains("analytics")) {
+			AnalyticsBenchmarks.run(harness, Integer.getInteger("bench.analyticsRows", 2_000_000),
+					Integer.getInteger("bench.departments", 20));
+		}
+		if (groups.contains("dao")) {
+			try {
+				DaoBenchmarks.run(harness, Integer.getInteger("bench.sellers", 10_000),
+						Integer.getInteger("bench.departments", 20));
+			} finally {
+				DB.closeConnection();
+			}
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package benchmark;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * A small JMH-like harness: warms an operation up for a while, then runs it
+ * for a fixed time and prints throughput, per-operation latency percentiles,
+ * bytes allocated per operation (thread allocation counter) and the GC
+ * activity during the measurement.
+ *
+ * Fast operations are timed in samples of opsPerSample calls, so the
+ * percentiles are of the sample means; use 1 for calls that take
+ * microseconds or more (JDBC).
+ *
+ * -Dbench.warmupMillis (default 2000) and -Dbench.measureMillis (5000).
+ */
+public class Harness {
+
+	public interface Op {
+		void run() throws Exception;
+	}
+
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	private static volatile Object sink;
+
+	private final long warmupNanos = Long.getLong("bench.warmupMillis", 2000) * 1_000_000;
+	private final long measureNanos = Long.getLong("bench.measureMillis", 5000) * 1_000_000;
+
+	public Harness() {
+		System.out.println(String.format("%-40s %12s %10s %10s %10s %10s %10s %10s %12s", "benchmark", "ops/s",
+				"p50", "p90", "p99", "p99.9", "max", "B/op", "gc (n/ms)"));
+	}
+
+	// Keeps results alive so the JIT can't drop the work that made them.
+	public static void consume(Object o) {
+		sink = o;
+	}
+
+	public void run(String name, int opsPerSample, Op op) throws Exception {
+		long end = System.nanoTime() + warmupNanos;
+		while (System.nanoTime() < end) {
+			for (int i = 0; i < opsPerSample; i++) {
+				op.run();
+			}
+		}
+
+		long[] samples = new long[1024];
+		int count = 0;
+		long gcCount = gcCount();
+		long gcMillis = gcMillis();
+		long threadId = Thread.currentThread().getId();
+		long allocated = THREADS.getThreadAllocatedBytes(threadId);
+		long start = System.nanoTime();
+		end = start + measureNanos;
+		long now = start;
+		while (now < end) {
+			for (int i = 0; i < opsPerSample; i++) {
+				op.run();
+			}
+			long t = System.nanoTime();
+			if (count == samples.length) {
+				samples = Arrays.copyOf(samples, count * 2);
+			}
+			samples[count++] = t - now;
+			now = t;
+		}
+		allocated = THREADS.getThreadAllocatedBytes(threadId) - allocated;
+		long elapsed = now - start;
+		long ops = (long) count * opsPerSample;
+
+		Arrays.sort(samples, 0, count);
+		System.out.println(String.format("%-40s %12.0f %10s %10s %10s %10s %10s %10d %12s", name,
+				ops * 1e9 / elapsed, time(samples, count, 0.5, opsPerSample), time(samples, count, 0.9, opsPerSample),
+				time(samples, count, 0.99, opsPerSample), time(samples, count, 0.999, opsPerSample),
+				time(samples, count, 1.0, opsPerSample), allocated / ops,
+				(gcCount() - gcCount) + "/" + (gcMillis() - gcMillis)));
+	}
+
+	private static String time(long[] sorted, int count, double quantile, int opsPerSample) {
+		double nanos = (double) sorted[(int) Math.ceil(quantile * count) - 1] / opsPerSample;
+		if (nanos < 10_000) {
+			return String.format("%.0f ns", nanos);
+		}
+		if (nanos < 10_000_000) {
+			return String.format("%.1f us", nanos / 1e3);
+		}
+		return String.format("%.1f ms", nanos / 1e6);
+	}
+
+	private static long gcCount() {
+		long n = 0;
+		for (GarbageCollectorMXBean gc : gcs()) {
+			n += Math.max(0, gc.getCollectionCount());
+		}
+		return n;
+	}
+
+	private static long gcMillis() {
+		long n = 0;
+		for (GarbageCollectorMXBean gc : gcs()) {
+			n += Math.max(0, gc.getCollectionTime());
+		}
+		return n;
+	}
+
+	private static List<GarbageCollectorMXBean> gcs() {
+		return ManagementFactory.getGarbageCollectorMXBeans();
+	}
+}
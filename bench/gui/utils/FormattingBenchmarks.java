@@ -0,0 +1,43 @@
+package gui.utils;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+
+import benchmark.Harness;
+
+/*
+ * The text the formatTableColumnDate/formatTableColumnDouble cells compute
+ * on every updateItem, i.e. per cell per scroll step. "memo" cycles through
+ * 256 values, like repainting the rows of a scrolled table; "new values"
+ * never repeats. The SimpleDateFormat/String.format rows are what the cells
+ * used to do, for comparison.
+ */
+public class FormattingBenchmarks {
+
+	public static void run(Harness harness) throws Exception {
+		Random random = new Random(42);
+		Date[] dates = new Date[256];
+		Double[] doubles = new Double[256];
+		for (int i = 0; i < dates.length; i++) {
+			dates[i] = new Date((3000 + random.nextInt(15000)) * 86_400_000L);
+			doubles[i] = 1000 + random.nextInt(900_000) / 100.0;
+		}
+		int[] next = { 0 };
+		double[] counter = { 0 };
+
+		CellFormat<Date> dateFormat = CellFormat.date("dd/MM/yyyy");
+		CellFormat<Double> decimalFormat = CellFormat.decimal(2);
+		SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
+
+		harness.run("CellFormat date (memo)", 1000, () -> Harness.consume(dateFormat.format(dates[next[0]++ & 255])));
+		harness.run("SimpleDateFormat date", 1000, () -> Harness.consume(sdf.format(dates[next[0]++ & 255])));
+		harness.run("CellFormat decimal (memo)", 1000,
+				() -> Harness.consume(decimalFormat.format(doubles[next[0]++ & 255])));
+		harness.run("CellFormat decimal (new values)", 1000,
+				() -> Harness.consume(decimalFormat.format(counter[0] += 0.37)));
+		harness.run("String.format decimal", 1000,
+				() -> Harness.consume(String.format(Locale.US, "%.2f", doubles[next[0]++ & 255])));
+	}
+}
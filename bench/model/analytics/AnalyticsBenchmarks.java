@@ -0,0 +1,68 @@
+package model.analytics;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import benchmark.Harness;
+import model.entities.Department;
+import model.entities.SellerTable;
+
+/*
+ * How SellerAnalytics scales with the number of cores, on synthetic data (no
+ * database needed). Runs the same table on pools of 1, 2, 4... threads up to
+ * the number of processors; compare the ops/s of the rows for the speed-up
+ * (B/op only counts the calling thread, not the pool's workers).
+ * Then prints the sketch's median and p99 against the exact ones.
+ *
+ * -Dbench.analyticsRows (default 2000000) and -Dbench.departments (20).
+ */
+public class AnalyticsBenchmarks {
+
+	public static void run(Harness harness, int rows, int departments) throws Exception {
+		SellerTable table = generate(rows, departments, new Random(42));
+		LocalDate asOf = LocalDate.of(2020, 1, 1);
+		System.out.println(table);
+
+		for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2) {
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			try {
+				SellerAnalytics analytics = new SellerAnalytics(pool);
+				harness.run("SellerAnalytics.analyze threads=" + threads, 1,
+						() -> Harness.consume(analytics.analyze(table, asOf, 1.5)));
+			} finally {
+				pool.shutdown();
+			}
+		}
+
+		SellerReport report = new SellerAnalytics().analyze(table, asOf, 1.5);
+		double[] salaries = new double[table.size()];
+		table.baseSalaries().get(salaries);
+		Arrays.sort(salaries);
+		System.out.println(String.format("p50 exact=%.2f sketch=%.2f, p99 exact=%.2f sketch=%.2f",
+				salaries[(salaries.length - 1) / 2], report.getSalarySketch().quantile(0.5),
+				salaries[(int) Math.floor(0.99 * (salaries.length - 1))], report.getSalarySketch().quantile(0.99)));
+	}
+
+	private static SellerTable generate(int rows, int departments, Random random) {
+		Department[] deps = new Department[departments];
+		for (int d = 0; d < departments; d++) {
+			deps[d] = new Department(d + 1, "Department " + (d + 1));
+		}
+		int today = (int) LocalDate.of(2020, 1, 1).toEpochDay();
+		SellerTable.Builder builder = new SellerTable.Builder();
+		for (int i = 0; i < rows; i++) {
+			int d = random.nextInt(departments);
+			// log-normal-ish salaries, a different level per department, and a few outliers
+			double salary = Math.exp(7.5 + d * 0.05 + random.nextGaussian() * 0.3);
+			if (random.nextInt(1000) == 0) {
+				salary *= 10;
+			}
+			int birth = random.nextInt(100) == 0 ? SellerTable.NO_DATE : today - 18 * 365 - random.nextInt(50 * 365);
+			builder.add(i + 1, "Seller " + i, "seller" + i + "@example.com", birth, Math.round(salary * 100) / 100.0,
+					deps[d]);
+		}
+		return builder.build();
+	}
+}
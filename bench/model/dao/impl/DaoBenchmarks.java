@@ -0,0 +1,108 @@
+package model.dao.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import benchmark.Harness;
+import db.DB;
+import model.entities.Department;
+import model.entities.Seller;
+
+/*
+ * The JDBC DAOs (not the caching ones) against a scratch database of their
+ * own: -Dbench.dbProperties names its settings file, and the application's
+ * db.properties is never used. The benchmark generates its departments
+ * ("bench-N") and sellers, and refuses to run if the tables hold anything
+ * else, so findAll reads only generated rows. Rows left by an interrupted
+ * run are deleted at the next start.
+ */
+public class DaoBenchmarks {
+
+	public static void run(Harness harness, int sellers, int departments) throws Exception {
+		useBenchDatabase();
+		Random random = new Random(42);
+		DepartmentDaoJDBC departmentDao = new DepartmentDaoJDBC();
+		SellerDaoJDBC sellerDao = new SellerDaoJDBC();
+		deleteLeftovers(departmentDao, sellerDao);
+
+		List<Department> deps = new ArrayList<>();
+		for (int d = 0; d < departments; d++) {
+			deps.add(new Department(null, "bench-" + (d + 1)));
+		}
+		List<Seller> list = new ArrayList<>();
+		List<Integer> ids = new ArrayList<>();
+		try {
+			departmentDao.insertAll(deps);
+			for (int i = 0; i < sellers; i++) {
+				list.add(seller(i, deps, random));
+			}
+			sellerDao.insertAll(list);
+			for (Seller obj : list) {
+				ids.add(obj.getId());
+			}
+
+			harness.run("DepartmentDaoJDBC.findAll", 1, () -> Harness.consume(departmentDao.findAll()));
+			harness.run("SellerDaoJDBC.findById", 1,
+					() -> Harness.consume(sellerDao.findById(ids.get(random.nextInt(ids.size())))));
+			harness.run("SellerDaoJDBC.findAll", 1, () -> Harness.consume(sellerDao.findAll()));
+			harness.run("SellerDaoJDBC.forEachRow", 1, () -> sellerDao.forEachRow(Harness::consume));
+			harness.run("SellerDaoJDBC.insert", 1, () -> {
+				Seller obj = seller(ids.size(), deps, random);
+				sellerDao.insert(obj);
+				ids.add(obj.getId());
+			});
+		} finally {
+			sellerDao.deleteAllById(ids);
+			for (Department dep : deps) {
+				if (dep.getId() != null) {
+					departmentDao.deleteById(dep.getId());
+				}
+			}
+		}
+	}
+
+	private static void useBenchDatabase() throws IOException {
+		String path = System.getProperty("bench.dbProperties");
+		if (path == null || path.trim().isEmpty()) {
+			throw new IllegalStateException(
+					"The dao group needs -Dbench.dbProperties=<settings file of a scratch database>.");
+		}
+		File file = new File(path.trim());
+		if (!file.isFile()) {
+			throw new IllegalStateException("bench.dbProperties: no such file " + file);
+		}
+		if (file.getCanonicalFile().equals(new File("db.properties").getCanonicalFile())) {
+			throw new IllegalStateException("bench.dbProperties must not be the application's db.properties.");
+		}
+		DB.setPropertiesFile(file.getPath());
+	}
+
+	private static void deleteLeftovers(DepartmentDaoJDBC departmentDao, SellerDaoJDBC sellerDao) {
+		List<Integer> sellerIds = new ArrayList<>();
+		for (Seller obj : sellerDao.findAll()) {
+			if (!obj.getName().startsWith("Bench Seller ")) {
+				throw new IllegalStateException("The bench database has sellers of its own (" + obj.getName()
+						+ "); use an empty schema.");
+			}
+			sellerIds.add(obj.getId());
+		}
+		sellerDao.deleteAllById(sellerIds);
+		for (Department dep : departmentDao.findAll()) {
+			if (!dep.getName().startsWith("bench-")) {
+				throw new IllegalStateException("The bench database has departments of its own (" + dep.getName()
+						+ "); use an empty schema.");
+			}
+			departmentDao.deleteById(dep.getId());
+		}
+	}
+
+	private static Seller seller(int i, List<Department> deps, Random random) {
+		return new Seller(null, "Bench Seller " + i, "bench" + i + "@example.com",
+				new Date((3000 + random.nextInt(15000)) * 86_400_000L), 1000 + random.nextInt(9000) + 0.5,
+				deps.get(random.nextInt(deps.size())));
+	}
+}
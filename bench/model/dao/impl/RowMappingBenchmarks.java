@@ -0,0 +1,94 @@
+package model.dao.impl;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.Random;
+
+import benchmark.Harness;
+import model.entities.SellerTable;
+
+/*
+ * SellerRowMapper over an in-memory ResultSet (a Proxy returning pre-built
+ * values), so the numbers are the mapper's own work without a driver or a
+ * database. "ResultSet only" reads the same columns without mapping: the
+ * difference is the mapper. The proxy's argument arrays are included in
+ * B/op for all of them.
+ */
+public class RowMappingBenchmarks {
+
+	private static final String[] COLUMNS = { "Id", "Name", "Email", "BirthDate", "BaseSalary", "DepartmentId",
+			"DepName" };
+
+	public static void run(Harness harness) throws Exception {
+		ResultSet rs = syntheticResultSet(10_000, 20, new Random(42));
+		SellerRowMapper mapper = new SellerRowMapper(rs);
+
+		harness.run("ResultSet only", 1000, () -> {
+			rs.next();
+			rs.getInt(1);
+			Harness.consume(rs.getString(2));
+			Harness.consume(rs.getString(3));
+			Harness.consume(rs.getDate(4));
+			rs.getDouble(5);
+			rs.getInt(6);
+		});
+		harness.run("SellerRowMapper.map", 1000, () -> {
+			rs.next();
+			Harness.consume(mapper.map(rs));
+		});
+		harness.run("SellerRowMapper.read", 1000, () -> {
+			rs.next();
+			Harness.consume(mapper.read(rs));
+		});
+		harness.run("SellerRowMapper.appendTo (1000 rows)", 1, () -> {
+			SellerTable.Builder builder = new SellerTable.Builder();
+			for (int i = 0; i < 1000; i++) {
+				rs.next();
+				mapper.appendTo(rs, builder);
+			}
+			Harness.consume(builder.build());
+		});
+	}
+
+	// next() never runs out: it wraps around to the first row
+	static ResultSet syntheticResultSet(int rows, int departments, Random random) {
+		Object[][] data = new Object[rows][];
+		long day = 86_400_000L;
+		for (int i = 0; i < rows; i++) {
+			int dep = random.nextInt(departments) + 1;
+			data[i] = new Object[] { i + 1, "Seller " + i, "seller" + i + "@example.com",
+					new java.sql.Date((3000 + random.nextInt(15000)) * day), 1000 + random.nextInt(9000) + 0.5, dep,
+					"Department " + dep };
+		}
+		ResultSetMetaData md = (ResultSetMetaData) Proxy.newProxyInstance(ResultSetMetaData.class.getClassLoader(),
+				new Class<?>[] { ResultSetMetaData.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "getColumnCount":
+						return COLUMNS.length;
+					case "getColumnLabel":
+						return COLUMNS[(Integer) args[0] - 1];
+					default:
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+		int[] row = { -1 };
+		return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+					case "next":
+						row[0] = (row[0] + 1) % rows;
+						return true;
+					case "getMetaData":
+						return md;
+					case "getInt":
+					case "getString":
+					case "getDate":
+					case "getDouble":
+						return data[row[0]][(Integer) args[0] - 1];
+					default:
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+}
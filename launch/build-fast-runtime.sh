@@ -0,0 +1,45 @@
+#!/bin/sh
+# Builds the startup-optimized launch used by run-fast.sh, under build/fast:
+#
+#   runtime/  a jlink image with only the modules the application uses
+#             (JavaFX included, so no --module-path is needed to run it)
+#   app.jar   the classes and FXML files Eclipse compiled into bin/
+#   app.jsa   an application class-data-sharing archive of the classes loaded
+#             up to the first frame and the database warm-up (JDK, JavaFX,
+#             MySQL driver and application classes), recorded by a training
+#             run that exits by itself (-Dstartup.exitWhenWarm=true)
+#
+# CDS only maps classes from the runtime image and from jar files, which is
+# why bin/ is packed into app.jar. The archive is tied to this runtime and to
+# the exact class path, so rebuild it after changing either (or the code).
+#
+# Needs JAVA_HOME (JDK 12 or later), JAVAFX_JMODS (the javafx-jmods-<version>
+# directory, not the SDK lib/) and MYSQL_JAR (MySQL Connector/J). Run it from
+# anywhere; the training run needs the database in db.properties.
+set -eu
+
+: "${JAVA_HOME:?set JAVA_HOME to a JDK}"
+: "${JAVAFX_JMODS:?set JAVAFX_JMODS to the JavaFX jmods directory}"
+: "${MYSQL_JAR:?set MYSQL_JAR to the MySQL Connector/J jar}"
+
+PROJECT=$(cd "$(dirname "$0")/.." && pwd)
+OUT="$PROJECT/build/fast"
+MODULES=java.sql,java.naming,java.management,java.logging,jdk.httpserver,jdk.crypto.ec,javafx.controls,javafx.fxml
+
+rm -rf "$OUT"
+mkdir -p "$OUT"
+
+"$JAVA_HOME/bin/jlink" --module-path "$JAVA_HOME/jmods:$JAVAFX_JMODS" --add-modules "$MODULES" \
+	--strip-debug --no-header-files --no-man-pages --compress=2 --output "$OUT/runtime"
+
+"$JAVA_HOME/bin/jar" --create --file "$OUT/app.jar" -C "$PROJECT/bin" .
+cp "$MYSQL_JAR" "$OUT/mysql-connector.jar"
+CLASSPATH="$OUT/app.jar:$OUT/mysql-connector.jar"
+
+cd "$PROJECT"
+"$OUT/runtime/bin/java" -Xshare:off -XX:DumpLoadedClassList="$OUT/classes.lst" -Dstartup.exitWhenWarm=true \
+	-cp "$CLASSPATH" application.Main
+"$OUT/runtime/bin/java" -Xshare:dump -XX:SharedClassListFile="$OUT/classes.lst" \
+	-XX:SharedArchiveFile="$OUT/app.jsa" -cp "$CLASSPATH"
+
+echo "Built $OUT; start the application with launch/run-fast.sh"
@@ -0,0 +1,14 @@
+#!/bin/sh
+# Starts the application on the runtime and CDS archive made by
+# build-fast-runtime.sh. The startup milestones (first frame, database
+# warm-up, first table) are printed to stdout; compare them with a plain
+# Eclipse launch. -Xshare:auto falls back to normal class loading, with a
+# warning, if the archive doesn't match the runtime or class path.
+set -eu
+
+PROJECT=$(cd "$(dirname "$0")/.." && pwd)
+OUT="$PROJECT/build/fast"
+
+cd "$PROJECT"
+exec "$OUT/runtime/bin/java" -Xshare:auto -XX:SharedArchiveFile="$OUT/app.jsa" \
+	-cp "$OUT/app.jar:$OUT/mysql-connector.jar" application.Main "$@"
@@ -0,0 +1,19 @@
+-- Indexes used by the seller queries of the application.
+-- Run once against the coursejdbc database.
+
+-- keyset pagination: ORDER BY Name, Id / WHERE (Name, Id) > (?, ?)
+CREATE INDEX idx_seller_name_id ON seller (Name, Id);
+
+-- paging inside one department
+CREATE INDEX idx_seller_department_name_id ON seller (DepartmentId, Name, Id);
+
+-- SellerDao.search: name prefix (LIKE 'x%') uses idx_seller_name_id,
+-- department sets use idx_seller_department_name_id
+CREATE INDEX idx_seller_base_salary ON seller (BaseSalary);
+CREATE INDEX idx_seller_birth_date ON seller (BirthDate);
+
+-- email domain: functional index, needs MySQL 8.0.13 or later
+CREATE INDEX idx_seller_email_domain ON seller ((SUBSTRING_INDEX(Email, '@', -1)));
+
+-- department salary summary: covers the GROUP BY and the per-department MIN/MAX
+CREATE INDEX idx_seller_department_salary ON seller (DepartmentId, BaseSalary);
@@ -0,0 +1,43 @@
+package application;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import db.DB;
+import model.service.SellerExporter;
+import model.service.SellerService;
+
+/*
+ * Headless seller export, for scheduled jobs. The format comes from the file
+ * name: .csv or .jsonl, plus .gz for gzip. Reads db.properties from the
+ * working directory like the application.
+ *
+ *   java -cp bin application.ExportSellers sellers.csv.gz
+ */
+public class ExportSellers {
+
+	public static void main(String[] args) {
+		if (args.length != 1) {
+			System.err.println("Usage: ExportSellers <file.csv|file.jsonl>[.gz]");
+			System.exit(2);
+		}
+		Path target = Paths.get(args[0]);
+		int exitCode = 0;
+		try {
+			long start = System.nanoTime();
+			long rows = new SellerExporter(new SellerService()).export(target);
+			long millis = (System.nanoTime() - start) / 1_000_000;
+			System.out.println(rows + " seller(s) exported to " + target + " (" + Files.size(target) + " bytes) in "
+					+ millis + " ms");
+		} catch (Exception e) {
+			System.err.println("Export failed: " + e.getMessage());
+			exitCode = 1;
+		} finally {
+			DB.closeConnection();
+		}
+		if (exitCode != 0) {
+			System.exit(exitCode);
+		}
+	}
+}
@@ -2,11 +2,17 @@ package application;
 
 import java.io.IOException;
 
+import db.DB;
+import gui.MainViewController;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.ScrollPane;
 import javafx.stage.Stage;
+import model.dao.metrics.MetricsHttpServer;
+import model.service.DepartmentSalaryAggregates;
+import model.service.DepartmentService;
+import model.service.ServiceExecutor;
 
 public class Main extends Application {
 	
@@ -14,6 +20,14 @@ public class Main extends Application {
 	
 	@Override
 	public void start(Stage primaryStage) {
+		// db.properties, the driver, the first pooled connection and the department
+		// cache load on a worker while the main window is parsed and shown
+		ServiceExecutor.runAsync(() -> new DepartmentService().findAll()).whenComplete((v, e) -> {
+			if (e != null) {
+				System.err.println("Database warm-up failed: " + e.getMessage());
+			}
+			StartupTimes.databaseReady();
+		});
 		try {
 			FXMLLoader loader = new FXMLLoader(getClass().getResource("/gui/MainView.fxml"));
 			ScrollPane scrollPane = loader.load();
@@ -22,14 +36,36 @@ public class Main extends Application {
 			scrollPane.setFitToWidth(true);
 			
 			mainScene = new Scene(scrollPane);
+			mainScene.addPostLayoutPulseListener(new Runnable() {
+				@Override
+				public void run() {
+					mainScene.removePostLayoutPulseListener(this);
+					StartupTimes.firstFrame();
+				}
+			});
 			primaryStage.setScene(mainScene);
 			primaryStage.setTitle("Sample JavaFX application");
 			primaryStage.show();
+			
+			// the other views are parsed in the background, before the first menu click
+			((MainViewController) loader.getController()).prewarmViews();
+			
+			MetricsHttpServer.startIfConfigured();
+			
+			// if this fails the aggregates stay stale and the dashboard loads them itself
+			ServiceExecutor.runAsync(() -> DepartmentSalaryAggregates.getInstance().rebuild());
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
 	
+	@Override
+	public void stop() {
+		ServiceExecutor.shutdown();
+		MetricsHttpServer.stop();
+		DB.closeConnection();
+	}
+	
 	public static Scene getMainScene() {
 		return mainScene;
 	}
@@ -0,0 +1,54 @@
+package application;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javafx.application.Platform;
+
+/*
+ * Startup milestones, in milliseconds since the process started: the first
+ * frame of the main window, the database warm-up (properties, driver,
+ * connection pool and the department cache) and the first table filled with
+ * data. Each is printed once to stdout.
+ *
+ * -Dstartup.exitWhenWarm=true exits as soon as the first frame is up and the
+ * warm-up is done; launch/build-fast-runtime.sh uses it for the training run
+ * that records the class list of the CDS archive.
+ */
+public class StartupTimes {
+
+	private static final String FIRST_FRAME = "first frame";
+	private static final String DATABASE_READY = "database warm-up";
+	private static final String FIRST_TABLE = "first table";
+
+	// ProcessHandle keeps java.management (RuntimeMXBean) out of the startup path
+	private static final long START_MILLIS = ProcessHandle.current().info().startInstant()
+			.orElseGet(Instant::now).toEpochMilli();
+
+	private static final Map<String, Long> milestones = new ConcurrentHashMap<>();
+
+	public static void firstFrame() {
+		record(FIRST_FRAME);
+	}
+
+	public static void databaseReady() {
+		record(DATABASE_READY);
+	}
+
+	public static void firstTable() {
+		record(FIRST_TABLE);
+	}
+
+	private static void record(String milestone) {
+		long millis = System.currentTimeMillis() - START_MILLIS;
+		if (milestones.putIfAbsent(milestone, millis) != null) {
+			return;
+		}
+		System.out.println("Startup: " + milestone + " after " + millis + " ms");
+		if (Boolean.getBoolean("startup.exitWhenWarm") && milestones.containsKey(FIRST_FRAME)
+				&& milestones.containsKey(DATABASE_READY)) {
+			Platform.runLater(Platform::exit);
+		}
+	}
+}
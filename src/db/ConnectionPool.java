@@ -0,0 +1,427 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Connection pool behind DB.getConnection(). Each borrowed connection is a
+ * proxy whose close() hands the physical connection back to the pool.
+ */
+public class ConnectionPool {
+
+	private final String url;
+	private final Properties driverProps;
+
+	private final int minSize;
+	private final int maxSize;
+	private final long maxWaitMillis;
+	private final int validationTimeoutSeconds;
+	private final long idleTimeoutMillis;
+	private final long leakDetectionMillis;
+	private final int statementCacheSize;
+
+	private final Semaphore permits;
+	private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+	private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+	private final ScheduledExecutorService housekeeper;
+
+	private final AtomicInteger totalConnections = new AtomicInteger();
+	private final AtomicLong borrowCount = new AtomicLong();
+	private final AtomicLong borrowWaitNanos = new AtomicLong();
+	private final AtomicLong maxBorrowWaitNanos = new AtomicLong();
+	private final AtomicLong borrowTimeouts = new AtomicLong();
+	private final AtomicLong createdCount = new AtomicLong();
+	private final AtomicLong destroyedCount = new AtomicLong();
+	private final AtomicLong leakCount = new AtomicLong();
+	private final AtomicLong statementHits = new AtomicLong();
+	private final AtomicLong statementMisses = new AtomicLong();
+	private final AtomicLong statementEvictions = new AtomicLong();
+
+	private volatile boolean closed;
+
+	private volatile QueryObserver queryObserver;
+
+	public ConnectionPool(Properties props) {
+		this.url = props.getProperty("dburl");
+		this.driverProps = new Properties();
+		for (Map.Entry<Object, Object> entry : props.entrySet()) {
+			String key = (String) entry.getKey();
+			// dotted keys (pool.*, batch.*) are application settings, the rest goes to the driver
+			if (!key.equals("dburl") && key.indexOf('.') < 0) {
+				driverProps.put(key, entry.getValue());
+			}
+		}
+
+		this.minSize = intProperty(props, "pool.minSize", 1);
+		this.maxSize = Math.max(intProperty(props, "pool.maxSize", 10), Math.max(minSize, 1));
+		this.maxWaitMillis = longProperty(props, "pool.maxWaitMillis", 30000);
+		this.validationTimeoutSeconds = intProperty(props, "pool.validationTimeoutSeconds", 2);
+		this.idleTimeoutMillis = longProperty(props, "pool.idleTimeoutMillis", 600000);
+		this.leakDetectionMillis = longProperty(props, "pool.leakDetectionMillis", 0);
+		this.statementCacheSize = intProperty(props, "pool.statementCacheSize", 50);
+		long housekeepingMillis = longProperty(props, "pool.housekeepingMillis", 30000);
+
+		this.permits = new Semaphore(maxSize, true);
+
+		for (int i = 0; i < minSize; i++) {
+			idle.offer(createConnection());
+		}
+
+		housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "db-pool-housekeeper");
+			t.setDaemon(true);
+			return t;
+		});
+		housekeeper.scheduleWithFixedDelay(this::housekeeping, housekeepingMillis, housekeepingMillis,
+				TimeUnit.MILLISECONDS);
+	}
+
+	public Connection borrow() {
+		if (closed) {
+			throw new DBException("Connection pool is closed.");
+		}
+		long start = System.nanoTime();
+		try {
+			if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+				borrowTimeouts.incrementAndGet();
+				throw new DBException("Timeout waiting for a database connection (" + maxWaitMillis + " ms). "
+						+ getStats());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DBException("Interrupted while waiting for a database connection.");
+		}
+
+		try {
+			PooledConnection pc = takeValidConnection();
+			long waited = System.nanoTime() - start;
+			borrowCount.incrementAndGet();
+			borrowWaitNanos.addAndGet(waited);
+			maxBorrowWaitNanos.accumulateAndGet(waited, Math::max);
+
+			pc.borrowedAt = System.currentTimeMillis();
+			pc.borrowStack = leakDetectionMillis > 0 ? new Exception("Connection borrowed here") : null;
+			pc.leakReported = false;
+			borrowed.add(pc);
+			return pc.newLease();
+		} catch (RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	private PooledConnection takeValidConnection() {
+		PooledConnection pc;
+		while ((pc = idle.pollFirst()) != null) {
+			if (isValid(pc)) {
+				return pc;
+			}
+			destroy(pc);
+		}
+		return createConnection();
+	}
+
+	private boolean isValid(PooledConnection pc) {
+		try {
+			return pc.physical.isValid(validationTimeoutSeconds);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	private PooledConnection createConnection() {
+		try {
+			Connection physical = DriverManager.getConnection(url, driverProps);
+			totalConnections.incrementAndGet();
+			createdCount.incrementAndGet();
+			return new PooledConnection(physical);
+		} catch (SQLException e) {
+			throw new DBException(e.getMessage());
+		}
+	}
+
+	private void destroy(PooledConnection pc) {
+		totalConnections.decrementAndGet();
+		destroyedCount.incrementAndGet();
+		try {
+			pc.physical.close();
+		} catch (SQLException e) {
+			// the connection is being discarded anyway
+		}
+	}
+
+	void release(PooledConnection pc) {
+		borrowed.remove(pc);
+		pc.lastUsed = System.currentTimeMillis();
+		boolean reusable = !closed;
+		if (pc.statements != null) {
+			pc.statements.reset();
+		}
+		try {
+			if (reusable && !pc.physical.getAutoCommit()) {
+				pc.physical.rollback();
+				pc.physical.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			reusable = false;
+		}
+		if (reusable) {
+			idle.offerFirst(pc);
+		} else {
+			destroy(pc);
+		}
+		permits.release();
+	}
+
+	private void housekeeping() {
+		long now = System.currentTimeMillis();
+
+		if (idleTimeoutMillis > 0) {
+			for (PooledConnection pc : idle) {
+				if (totalConnections.get() <= minSize) {
+					break;
+				}
+				if (now - pc.lastUsed > idleTimeoutMillis && idle.remove(pc)) {
+					destroy(pc);
+				}
+			}
+		}
+
+		if (leakDetectionMillis > 0) {
+			for (PooledConnection pc : borrowed) {
+				if (!pc.leakReported && now - pc.borrowedAt > leakDetectionMillis) {
+					pc.leakReported = true;
+					leakCount.incrementAndGet();
+					System.err.println("Possible connection leak: connection held for " + (now - pc.borrowedAt)
+							+ " ms.");
+					if (pc.borrowStack != null) {
+						pc.borrowStack.printStackTrace();
+					}
+				}
+			}
+		}
+	}
+
+	public void close() {
+		closed = true;
+		housekeeper.shutdownNow();
+		PooledConnection pc;
+		while ((pc = idle.pollFirst()) != null) {
+			destroy(pc);
+		}
+	}
+
+	// Sees every statement prepared from now on through this pool (null to stop).
+	public void setQueryObserver(QueryObserver queryObserver) {
+		this.queryObserver = queryObserver;
+	}
+
+	public int getMinSize() {
+		return minSize;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public int getTotalConnections() {
+		return totalConnections.get();
+	}
+
+	public int getIdleConnections() {
+		return idle.size();
+	}
+
+	public int getActiveConnections() {
+		return borrowed.size();
+	}
+
+	public int getThreadsAwaiting() {
+		return permits.getQueueLength();
+	}
+
+	public long getBorrowCount() {
+		return borrowCount.get();
+	}
+
+	public double getAverageBorrowWaitMillis() {
+		long count = borrowCount.get();
+		return count == 0 ? 0.0 : borrowWaitNanos.get() / (count * 1_000_000.0);
+	}
+
+	public double getMaxBorrowWaitMillis() {
+		return maxBorrowWaitNanos.get() / 1_000_000.0;
+	}
+
+	public long getBorrowTimeouts() {
+		return borrowTimeouts.get();
+	}
+
+	public long getCreatedCount() {
+		return createdCount.get();
+	}
+
+	public long getDestroyedCount() {
+		return destroyedCount.get();
+	}
+
+	public long getLeakCount() {
+		return leakCount.get();
+	}
+
+	public long getStatementCacheHits() {
+		return statementHits.get();
+	}
+
+	public long getStatementCacheMisses() {
+		return statementMisses.get();
+	}
+
+	public long getStatementCacheEvictions() {
+		return statementEvictions.get();
+	}
+
+	public double getStatementCacheHitRatio() {
+		long hits = statementHits.get();
+		long total = hits + statementMisses.get();
+		return total == 0 ? 0.0 : (double) hits / total;
+	}
+
+	void statementHit() {
+		statementHits.incrementAndGet();
+	}
+
+	void statementMiss() {
+		statementMisses.incrementAndGet();
+	}
+
+	void statementEvicted() {
+		statementEvictions.incrementAndGet();
+	}
+
+	public String getStats() {
+		return "ConnectionPool [total=" + getTotalConnections() + ", active=" + getActiveConnections() + ", idle="
+				+ getIdleConnections() + ", awaiting=" + getThreadsAwaiting() + ", borrows=" + getBorrowCount()
+				+ ", avgWaitMs=" + String.format("%.3f", getAverageBorrowWaitMillis()) + ", maxWaitMs="
+				+ String.format("%.3f", getMaxBorrowWaitMillis()) + ", timeouts=" + getBorrowTimeouts()
+				+ ", leaks=" + getLeakCount() + ", stmtHits=" + getStatementCacheHits() + ", stmtMisses="
+				+ getStatementCacheMisses() + "]";
+	}
+
+	private static int intProperty(Properties props, String key, int defaultValue) {
+		return (int) longProperty(props, key, defaultValue);
+	}
+
+	private static long longProperty(Properties props, String key, long defaultValue) {
+		String value = props.getProperty(key);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			return Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			throw new DBException("Invalid value for " + key + ": " + value);
+		}
+	}
+
+	class PooledConnection {
+
+		final Connection physical;
+		final StatementCache statements;
+		volatile long lastUsed = System.currentTimeMillis();
+		volatile long borrowedAt;
+		volatile Exception borrowStack;
+		volatile boolean leakReported;
+
+		PooledConnection(Connection physical) {
+			this.physical = physical;
+			this.statements = statementCacheSize > 0 ? new StatementCache(ConnectionPool.this, statementCacheSize)
+					: null;
+		}
+
+		Connection newLease() {
+			return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, new Lease(this));
+		}
+	}
+
+	/*
+	 * Handle given to the DAOs. Once closed it stays unusable, even after the
+	 * physical connection has been lent to someone else.
+	 */
+	private class Lease implements InvocationHandler {
+
+		private final PooledConnection pc;
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		Lease(PooledConnection pc) {
+			this.pc = pc;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if (name.equals("close")) {
+				if (released.compareAndSet(false, true)) {
+					release(pc);
+				}
+				return null;
+			}
+			if (name.equals("isClosed")) {
+				return released.get() || pc.physical.isClosed();
+			}
+			if (name.equals("equals")) {
+				return proxy == args[0];
+			}
+			if (name.equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			}
+			if (name.equals("toString")) {
+				return "PooledConnection[" + pc.physical + "]";
+			}
+			if (released.get()) {
+				throw new SQLException("Connection has already been returned to the pool.");
+			}
+			Object result;
+			if (name.equals("prepareStatement") && pc.statements != null && isCacheable(method)) {
+				int autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+				result = pc.statements.prepare(pc.physical, (Connection) proxy, (String) args[0], autoGeneratedKeys);
+			} else {
+				try {
+					result = method.invoke(pc.physical, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}
+			QueryObserver observer = queryObserver;
+			if (observer != null && name.equals("prepareStatement")) {
+				return ObservedStatement.wrap((PreparedStatement) result, (String) args[0], observer);
+			}
+			return result;
+		}
+
+		private boolean isCacheable(Method method) {
+			Class<?>[] types = method.getParameterTypes();
+			return types.length == 1 || (types.length == 2 && types[1] == int.class);
+		}
+	}
+}
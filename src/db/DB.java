@@ -3,30 +3,67 @@ package db;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class DB {
 	
-	private static Connection conn;
+	private static Properties props;
 	
-	public static Connection getConnection() {
-		if(conn == null) {
-			try {
-				Properties props = loadProperties();
-				String url = props.getProperty("dburl");
-				conn = DriverManager.getConnection(url, props);
-			} catch(SQLException e) {
-				throw new DBException(e.getMessage());
+	private static ConnectionPool pool;
+	
+	private static SlowQueryLog slowQueryLog;
+	
+	private static String propertiesFile = "db.properties";
+	
+	// A lock instead of synchronized: opening the pool does network I/O, and a
+	// virtual thread blocked inside a synchronized block pins its carrier thread.
+	private static final ReentrantLock lock = new ReentrantLock();
+	
+	// Separate from the pool lock: services read settings on the JavaFX thread
+	// while the startup warm-up may be holding the pool lock to connect.
+	private static final ReentrantLock propsLock = new ReentrantLock();
+	
+	public static ConnectionPool getPool() {
+		lock.lock();
+		try {
+			if(pool == null) {
+				pool = new ConnectionPool(getProperties());
+				installSlowQueryLog(pool);
 			}
+			return pool;
+		} finally {
+			lock.unlock();
 		}
-		return conn;
 	}
 	
-	public static void closeConnection() {
+	// slowQuery.thresholdMillis > 0 turns the slow-query log on (see SlowQueryLog)
+	private static void installSlowQueryLog(ConnectionPool pool) {
+		int thresholdMillis = getIntProperty("slowQuery.thresholdMillis", 0);
+		if(thresholdMillis > 0) {
+			if(slowQueryLog == null) {
+				slowQueryLog = new SlowQueryLog(thresholdMillis, getIntProperty("slowQuery.topN", 20),
+						Boolean.parseBoolean(getProperties().getProperty("slowQuery.explain", "true").trim()));
+			}
+			pool.setQueryObserver(slowQueryLog);
+		}
+	}
+	
+	// null when the slow-query log is off
+	public static SlowQueryLog getSlowQueryLog() {
+		getPool();
+		return slowQueryLog;
+	}
+	
+	// Borrows a connection from the pool; give it back with closeConnection(conn).
+	public static Connection getConnection() {
+		return getPool().borrow();
+	}
+	
+	public static void closeConnection(Connection conn) {
 		if(conn != null) {
 			try {
 				conn.close();
@@ -36,8 +73,63 @@ public class DB {
 		}
 	}
 	
+	public static void closeConnection() {
+		lock.lock();
+		try {
+			if(pool != null) {
+				pool.close();
+				pool = null;
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	public static Properties getProperties() {
+		propsLock.lock();
+		try {
+			if(props == null) {
+				props = loadProperties();
+			}
+			return props;
+		} finally {
+			propsLock.unlock();
+		}
+	}
+	
+	// Reads the settings from another file, e.g. a scratch database for the
+	// benchmarks. Must be called before anything reads them.
+	public static void setPropertiesFile(String path) {
+		propsLock.lock();
+		try {
+			if(props != null) {
+				throw new IllegalStateException("The settings were already read from " + propertiesFile);
+			}
+			propertiesFile = path;
+		} finally {
+			propsLock.unlock();
+		}
+	}
+	
+	public static int getIntProperty(String key, int defaultValue) {
+		String value = getProperties().getProperty(key);
+		if(value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch(NumberFormatException e) {
+			throw new DBException("Invalid value for " + key + ": " + value);
+		}
+	}
+	
+	// Number of rows sent per executeBatch() and committed together by the bulk DAO methods.
+	public static int getBatchSize() {
+		return Math.max(1, getIntProperty("batch.size", 500));
+	}
+	
 	private static Properties loadProperties() {
-		try(FileInputStream fs = new FileInputStream("db.properties")) {
+		try(FileInputStream fs = new FileInputStream(propertiesFile)) {
 			Properties props = new Properties();
 			props.load(fs);
 			return props;
@@ -0,0 +1,54 @@
+package db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/*
+ * The saveOrUpdateAll shared by the services: new rows go to insertAll and
+ * the others to updateAll, both halves are always tried, and the row
+ * positions in a DBBatchException from either one are mapped back to
+ * positions in the caller's list.
+ */
+public class DBBatch {
+
+	public static <T> void saveOrUpdateAll(List<T> list, Predicate<T> isNew, Consumer<List<T>> insertAll,
+			Consumer<List<T>> updateAll, String errorMessage) {
+		List<T> toInsert = new ArrayList<>();
+		List<Integer> insertIndexes = new ArrayList<>();
+		List<T> toUpdate = new ArrayList<>();
+		List<Integer> updateIndexes = new ArrayList<>();
+		for (int i = 0; i < list.size(); i++) {
+			if (isNew.test(list.get(i))) {
+				toInsert.add(list.get(i));
+				insertIndexes.add(i);
+			} else {
+				toUpdate.add(list.get(i));
+				updateIndexes.add(i);
+			}
+		}
+		
+		DBBatchException exception = new DBBatchException(errorMessage);
+		try {
+			insertAll.accept(toInsert);
+		} catch (DBBatchException e) {
+			addErrors(exception, e, insertIndexes);
+		}
+		try {
+			updateAll.accept(toUpdate);
+		} catch (DBBatchException e) {
+			addErrors(exception, e, updateIndexes);
+		}
+		if (exception.getErrors().size() > 0) {
+			throw exception;
+		}
+	}
+
+	private static void addErrors(DBBatchException target, DBBatchException source, List<Integer> indexes) {
+		for (Map.Entry<Integer, String> error : source.getErrors().entrySet()) {
+			target.addError(indexes.get(error.getKey()), error.getValue());
+		}
+	}
+}
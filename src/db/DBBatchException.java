@@ -0,0 +1,24 @@
+package db;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+public class DBBatchException extends DBException {
+
+	private static final long serialVersionUID = 1L;
+	
+	// position of the failed row in the list passed to the bulk method -> error message
+	private Map<Integer, String> errors = new TreeMap<>();
+
+	public DBBatchException(String msg) {
+		super(msg);
+	}
+	
+	public Map<Integer, String> getErrors() {
+		return errors;
+	}
+	
+	public void addError(Integer index, String errorMessage) {
+		errors.put(index, errorMessage);
+	}
+}
@@ -0,0 +1,163 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+
+/*
+ * PreparedStatement wrapper that remembers the bound parameters and times
+ * each execution for a QueryObserver. A query is timed from executeQuery
+ * until its ResultSet (or the statement) is closed, so the time includes
+ * fetching the rows, which is what the caller waits for with a streaming
+ * result set. For batches the parameters are those of the last row added.
+ */
+class ObservedStatement implements InvocationHandler {
+
+	private static final Object[] NO_PARAMETERS = new Object[0];
+
+	private final PreparedStatement statement;
+	private final String sql;
+	private final QueryObserver observer;
+
+	private Object[] parameters = NO_PARAMETERS;
+	private int parameterCount;
+	private ObservedResultSet openResultSet;
+
+	private ObservedStatement(PreparedStatement statement, String sql, QueryObserver observer) {
+		this.statement = statement;
+		this.sql = sql;
+		this.observer = observer;
+	}
+
+	static PreparedStatement wrap(PreparedStatement statement, String sql, QueryObserver observer) {
+		return (PreparedStatement) Proxy.newProxyInstance(ObservedStatement.class.getClassLoader(),
+				new Class<?>[] { PreparedStatement.class }, new ObservedStatement(statement, sql, observer));
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		String name = method.getName();
+		if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+			// setNull(i, type) binds null, the others bind args[1]
+			bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+		} else if (name.equals("clearParameters")) {
+			Arrays.fill(parameters, null);
+			parameterCount = 0;
+		} else if (name.equals("close") && openResultSet != null) {
+			openResultSet.report();
+		} else if (name.equals("equals")) {
+			return proxy == args[0];
+		} else if (name.equals("hashCode")) {
+			return System.identityHashCode(proxy);
+		}
+		if (!name.startsWith("execute") || args != null) {
+			return call(method, args);
+		}
+
+		if (openResultSet != null) {
+			// the driver closes the previous result set
+			openResultSet.report();
+		}
+		long start = System.nanoTime();
+		Object result = call(method, args);
+		if (result instanceof ResultSet) {
+			openResultSet = new ObservedResultSet((ResultSet) result, start);
+			return Proxy.newProxyInstance(ObservedStatement.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+					openResultSet);
+		}
+		long elapsed = System.nanoTime() - start;
+		if (result instanceof int[]) {
+			report(rows((int[]) result), elapsed);
+		} else if (result instanceof Number) {
+			report(((Number) result).longValue(), elapsed);
+		} else {
+			report(-1, elapsed);
+		}
+		return result;
+	}
+
+	private Object call(Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(statement, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	private void bind(int index, Object value) {
+		if (index > parameters.length) {
+			parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+		}
+		if (index >= 1) {
+			parameters[index - 1] = value;
+			parameterCount = Math.max(parameterCount, index);
+		}
+	}
+
+	private static long rows(int[] counts) {
+		long rows = 0;
+		for (int count : counts) {
+			// rewritten batches may only say "done"
+			rows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+		}
+		return rows;
+	}
+
+	private void report(long rows, long elapsedNanos) {
+		if (elapsedNanos >= observer.getThresholdNanos()) {
+			observer.executed(sql,
+					Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(parameters, parameterCount))), rows,
+					elapsedNanos);
+		}
+	}
+
+	private class ObservedResultSet implements InvocationHandler {
+
+		private final ResultSet rs;
+		private final long start;
+		private long rows;
+		private boolean reported;
+
+		ObservedResultSet(ResultSet rs, long start) {
+			this.rs = rs;
+			this.start = start;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if (name.equals("equals")) {
+				return proxy == args[0];
+			}
+			if (name.equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			}
+			Object result;
+			try {
+				result = method.invoke(rs, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+			if (name.equals("next") && Boolean.TRUE.equals(result)) {
+				rows++;
+			} else if (name.equals("close")) {
+				report();
+			}
+			return result;
+		}
+
+		void report() {
+			if (!reported) {
+				reported = true;
+				openResultSet = null;
+				ObservedStatement.this.report(rows, System.nanoTime() - start);
+			}
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package db;
+
+import java.util.List;
+
+/*
+ * Hook called by the connection pool after the statements the DAOs prepare
+ * have run (ConnectionPool.setQueryObserver). Only executions that took at
+ * least getThresholdNanos() are reported, so the parameters are copied only
+ * for those. Called on the thread that ran the statement.
+ */
+public interface QueryObserver {
+
+	long getThresholdNanos();
+
+	// rows: read from the result set, or the update count (summed for batches)
+	void executed(String sql, List<Object> parameters, long rows, long elapsedNanos);
+}
@@ -0,0 +1,211 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * QueryObserver installed by DB when slowQuery.thresholdMillis > 0. Every
+ * execution over the threshold is logged to stderr with its SQL, parameters,
+ * rows and time. The worst slowQuery.topN statements (by SQL text) are kept
+ * for getReport(); when one of them gets a new worst time, EXPLAIN is run
+ * for it with the same parameters on a background thread and a separate
+ * connection (slowQuery.explain=false turns that off).
+ */
+public class SlowQueryLog implements QueryObserver {
+
+	private final long thresholdNanos;
+	private final int topN;
+	private final boolean explain;
+
+	// guarded by this
+	private final Map<String, Entry> worst = new HashMap<>();
+	private final AtomicLong slowCount = new AtomicLong();
+
+	private final ExecutorService explainer = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "db-slow-query-explain");
+		t.setDaemon(true);
+		return t;
+	});
+
+	public SlowQueryLog(long thresholdMillis, int topN, boolean explain) {
+		this.thresholdNanos = thresholdMillis * 1_000_000;
+		this.topN = Math.max(1, topN);
+		this.explain = explain;
+	}
+
+	@Override
+	public long getThresholdNanos() {
+		return thresholdNanos;
+	}
+
+	@Override
+	public void executed(String sql, List<Object> parameters, long rows, long elapsedNanos) {
+		if (sql.regionMatches(true, 0, "EXPLAIN", 0, 7)) {
+			return;
+		}
+		slowCount.incrementAndGet();
+		System.err.println(String.format("Slow query (%.1f ms, %d row(s)): %s %s", elapsedNanos / 1e6, rows,
+				oneLine(sql), parameters));
+
+		Entry toExplain = null;
+		synchronized (this) {
+			Entry entry = worst.get(sql);
+			if (entry == null) {
+				if (worst.size() >= topN) {
+					Entry fastest = fastest();
+					if (fastest.worstNanos >= elapsedNanos) {
+						return;
+					}
+					worst.remove(fastest.sql);
+				}
+				entry = new Entry(sql);
+				worst.put(sql, entry);
+			}
+			entry.count++;
+			entry.lastSeen = System.currentTimeMillis();
+			if (elapsedNanos > entry.worstNanos) {
+				entry.worstNanos = elapsedNanos;
+				entry.parameters = parameters;
+				entry.rows = rows;
+				if (explain && !entry.explaining && isExplainable(sql)) {
+					entry.explaining = true;
+					toExplain = entry;
+				}
+			}
+		}
+		if (toExplain != null) {
+			Entry entry = toExplain;
+			explainer.execute(() -> explain(entry, parameters));
+		}
+	}
+
+	private Entry fastest() {
+		Entry fastest = null;
+		for (Entry entry : worst.values()) {
+			if (fastest == null || entry.worstNanos < fastest.worstNanos) {
+				fastest = entry;
+			}
+		}
+		return fastest;
+	}
+
+	private void explain(Entry entry, List<Object> parameters) {
+		String plan;
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			conn = DB.getConnection();
+			st = conn.prepareStatement("EXPLAIN " + entry.sql);
+			for (int i = 0; i < parameters.size(); i++) {
+				st.setObject(i + 1, parameters.get(i));
+			}
+			rs = st.executeQuery();
+			plan = format(rs);
+		} catch (SQLException | RuntimeException e) {
+			plan = "EXPLAIN failed: " + e.getMessage();
+		} finally {
+			try {
+				DB.closeResultSet(rs);
+				DB.closeStatement(st);
+				DB.closeConnection(conn);
+			} catch (DBException e) {
+				// the plan (or the error) is still worth keeping
+			}
+		}
+		synchronized (this) {
+			entry.plan = plan;
+			entry.explaining = false;
+		}
+	}
+
+	private static String format(ResultSet rs) throws SQLException {
+		ResultSetMetaData md = rs.getMetaData();
+		StringBuilder sb = new StringBuilder();
+		while (rs.next()) {
+			sb.append(sb.length() == 0 ? "" : "\n");
+			for (int i = 1; i <= md.getColumnCount(); i++) {
+				Object value = rs.getObject(i);
+				if (value != null) {
+					sb.append(i == 1 ? "" : ", ").append(md.getColumnLabel(i)).append('=').append(value);
+				}
+			}
+		}
+		return sb.toString();
+	}
+
+	private static boolean isExplainable(String sql) {
+		String s = sql.trim();
+		for (String verb : new String[] { "SELECT", "INSERT", "UPDATE", "DELETE", "REPLACE" }) {
+			if (s.regionMatches(true, 0, verb, 0, verb.length())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String oneLine(String sql) {
+		return sql.replaceAll("\\s+", " ").trim();
+	}
+
+	// the tracked statements, slowest first
+	public synchronized String getReport() {
+		List<Entry> entries = new ArrayList<>(worst.values());
+		entries.sort((a, b) -> Long.compare(b.worstNanos, a.worstNanos));
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("Slow queries over %d ms: %d logged, %d statement(s) tracked (top %d)%n",
+				thresholdNanos / 1_000_000, slowCount.get(), entries.size(), topN));
+		int n = 1;
+		for (Entry entry : entries) {
+			sb.append(String.format("%n%d) worst %.1f ms, %d slow execution(s), %d row(s), last at %s%n", n++,
+					entry.worstNanos / 1e6, entry.count, entry.rows, LocalDateTime
+							.ofInstant(Instant.ofEpochMilli(entry.lastSeen), ZoneId.systemDefault())
+							.truncatedTo(ChronoUnit.SECONDS)));
+			sb.append("   ").append(oneLine(entry.sql)).append('\n');
+			sb.append("   parameters: ").append(entry.parameters).append('\n');
+			if (entry.plan != null) {
+				sb.append("   plan:\n     ").append(entry.plan.replace("\n", "\n     ")).append('\n');
+			} else if (entry.explaining) {
+				sb.append("   plan: running EXPLAIN...\n");
+			}
+		}
+		return sb.toString();
+	}
+
+	public String getStats() {
+		synchronized (this) {
+			return "SlowQueryLog [thresholdMs=" + thresholdNanos / 1_000_000 + ", slow=" + slowCount.get()
+					+ ", tracked=" + worst.size() + "]";
+		}
+	}
+
+	private static class Entry {
+
+		private final String sql;
+		private long count;
+		private long worstNanos;
+		private long rows;
+		private long lastSeen;
+		private List<Object> parameters;
+		private String plan;
+		private boolean explaining;
+
+		Entry(String sql) {
+			this.sql = sql;
+		}
+	}
+}
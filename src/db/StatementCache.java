@@ -0,0 +1,223 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * LRU cache of prepared statements for one physical connection, keyed by SQL
+ * text and generated-keys flag. close() on a cached statement only clears its
+ * parameters so the next prepareStatement with the same SQL reuses it.
+ * When the same SQL is already open on the connection, a throwaway statement
+ * is handed out instead, behind the same kind of handle: its getConnection()
+ * is the lease, and it is closed by close() or when the connection goes back.
+ */
+class StatementCache {
+
+	private final ConnectionPool pool;
+	private final int maxSize;
+	private final Map<Key, CachedStatement> statements;
+	private final List<CachedStatement> throwaways = new ArrayList<>();
+
+	StatementCache(ConnectionPool pool, int maxSize) {
+		this.pool = pool;
+		this.maxSize = maxSize;
+		this.statements = new LinkedHashMap<Key, CachedStatement>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, CachedStatement> eldest) {
+				if (size() > StatementCache.this.maxSize) {
+					pool.statementEvicted();
+					eldest.getValue().evict();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	PreparedStatement prepare(Connection physical, Connection lease, String sql, int autoGeneratedKeys)
+			throws SQLException {
+		Key key = new Key(sql, autoGeneratedKeys);
+		CachedStatement cached = statements.get(key);
+		if (cached != null && !cached.inUse) {
+			pool.statementHit();
+		} else if (cached != null) {
+			// same SQL already open on this connection: hand out a throwaway one
+			pool.statementMiss();
+			CachedStatement throwaway = new CachedStatement(physical.prepareStatement(sql, autoGeneratedKeys));
+			throwaway.evicted = true;
+			throwaway.inUse = true;
+			throwaways.add(throwaway);
+			return throwaway.newHandle(lease);
+		} else {
+			pool.statementMiss();
+			cached = new CachedStatement(physical.prepareStatement(sql, autoGeneratedKeys));
+			statements.put(key, cached);
+		}
+		cached.inUse = true;
+		return cached.newHandle(lease);
+	}
+
+	// Called when the connection goes back to the pool.
+	void reset() {
+		for (CachedStatement cached : statements.values()) {
+			if (cached.inUse) {
+				cached.recycle();
+			}
+		}
+		closeThrowaways();
+	}
+
+	int size() {
+		return statements.size();
+	}
+
+	void clear() {
+		List<CachedStatement> all = new ArrayList<>(statements.values());
+		statements.clear();
+		for (CachedStatement cached : all) {
+			cached.evict();
+		}
+		closeThrowaways();
+	}
+
+	private void closeThrowaways() {
+		for (CachedStatement throwaway : throwaways) {
+			if (throwaway.inUse) {
+				throwaway.recycle();
+			}
+		}
+		throwaways.clear();
+	}
+
+	private static class Key {
+
+		private final String sql;
+		private final int autoGeneratedKeys;
+
+		Key(String sql, int autoGeneratedKeys) {
+			this.sql = sql;
+			this.autoGeneratedKeys = autoGeneratedKeys;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * sql.hashCode() + autoGeneratedKeys;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return autoGeneratedKeys == other.autoGeneratedKeys && sql.equals(other.sql);
+		}
+	}
+
+	private static class CachedStatement {
+
+		private final PreparedStatement physical;
+		private boolean inUse;
+		private boolean evicted;
+		private Handle handle;
+
+		CachedStatement(PreparedStatement physical) {
+			this.physical = physical;
+		}
+
+		PreparedStatement newHandle(Connection lease) {
+			handle = new Handle(this, lease);
+			return (PreparedStatement) Proxy.newProxyInstance(StatementCache.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class }, handle);
+		}
+
+		void recycle() {
+			if (handle != null) {
+				handle.closed = true;
+				handle = null;
+			}
+			inUse = false;
+			if (evicted) {
+				closeQuietly();
+				return;
+			}
+			try {
+				physical.clearParameters();
+				physical.clearBatch();
+			} catch (SQLException e) {
+				evicted = true;
+				closeQuietly();
+			}
+		}
+
+		void evict() {
+			evicted = true;
+			if (!inUse) {
+				closeQuietly();
+			}
+		}
+
+		private void closeQuietly() {
+			try {
+				physical.close();
+			} catch (SQLException e) {
+				// statement is being dropped from the cache anyway
+			}
+		}
+	}
+
+	private static class Handle implements InvocationHandler {
+
+		private final CachedStatement cached;
+		private final Connection lease;
+		private boolean closed;
+
+		Handle(CachedStatement cached, Connection lease) {
+			this.cached = cached;
+			this.lease = lease;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if (name.equals("close")) {
+				if (!closed) {
+					cached.recycle();
+				}
+				return null;
+			}
+			if (name.equals("isClosed")) {
+				return closed;
+			}
+			if (name.equals("getConnection")) {
+				return lease;
+			}
+			if (name.equals("equals")) {
+				return proxy == args[0];
+			}
+			if (name.equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			}
+			if (closed) {
+				throw new SQLException("Statement is closed.");
+			}
+			try {
+				return method.invoke(cached.physical, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package gui;
+
+import java.net.URL;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+
+import application.StartupTimes;
+import gui.utils.Alerts;
+import gui.utils.Utils;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+import model.entities.DepartmentSalaryStats;
+import model.service.SellerService;
+
+public class DepartmentDashboardController implements Initializable {
+	
+	private SellerService service;
+	
+	@FXML
+	private TableView<DepartmentSalaryStats> tableViewStats;
+	
+	@FXML
+	private TableColumn<DepartmentSalaryStats, String> tableColumnDepartment;
+	
+	@FXML
+	private TableColumn<DepartmentSalaryStats, Integer> tableColumnCount;
+	
+	@FXML
+	private TableColumn<DepartmentSalaryStats, Double> tableColumnTotal;
+	
+	@FXML
+	private TableColumn<DepartmentSalaryStats, Double> tableColumnMin;
+	
+	@FXML
+	private TableColumn<DepartmentSalaryStats, Double> tableColumnMax;
+	
+	@FXML
+	private TableColumn<DepartmentSalaryStats, Double> tableColumnAverage;
+	
+	@FXML
+	private Button btRebuild;
+	
+	@FXML
+	private Label lblInfo;
+	
+	// recalcula tudo com um GROUP BY no banco (ex.: alteraes feitas fora da aplicao)
+	@FXML
+	public void onBtRebuildAction() {
+		if(service == null) {
+			throw new IllegalStateException("Service was null.");
+		}
+		load(service.rebuildSalaryStatsAsync());
+	}
+	
+	public void setSellerService(SellerService service) {
+		this.service = service;
+	}
+	
+	@Override
+	public void initialize(URL url, ResourceBundle rb) {
+		initializeNodes();
+	}
+	
+	private void initializeNodes() {
+		tableColumnDepartment.setCellValueFactory(
+				param -> new ReadOnlyObjectWrapper<>(param.getValue().getDepartment().getName()));
+		tableColumnCount.setCellValueFactory(new PropertyValueFactory<>("count"));
+		tableColumnTotal.setCellValueFactory(new PropertyValueFactory<>("total"));
+		Utils.formatTableColumnDouble(tableColumnTotal, 2);
+		tableColumnMin.setCellValueFactory(new PropertyValueFactory<>("min"));
+		Utils.formatTableColumnDouble(tableColumnMin, 2);
+		tableColumnMax.setCellValueFactory(new PropertyValueFactory<>("max"));
+		Utils.formatTableColumnDouble(tableColumnMax, 2);
+		tableColumnAverage.setCellValueFactory(new PropertyValueFactory<>("average"));
+		Utils.formatTableColumnDouble(tableColumnAverage, 2);
+		
+		Utils.bindHeightToMainStage(tableViewStats);
+	}
+	
+	// os totais j esto em memria: a leitura custa O(departamentos), sem varrer os vendedores
+	public void updateTableView() {
+		if(service == null) {
+			throw new IllegalStateException("Service was null.");
+		}
+		load(service.findSalaryStatsByDepartmentAsync());
+	}
+	
+	private void load(CompletableFuture<List<DepartmentSalaryStats>> future) {
+		long start = System.nanoTime();
+		tableViewStats.setPlaceholder(new ProgressIndicator());
+		btRebuild.setDisable(true);
+		Utils.runLaterWhenComplete(future, list -> {
+			tableViewStats.setItems(FXCollections.observableArrayList(list));
+			StartupTimes.firstTable(); // s conta a primeira vez
+			tableViewStats.setPlaceholder(new Label("No content in table"));
+			btRebuild.setDisable(false);
+			lblInfo.setText(list.size() + " department(s), " + (System.nanoTime() - start) / 1_000_000 + " ms");
+		}, e -> {
+			tableViewStats.setPlaceholder(new Label("No content in table"));
+			btRebuild.setDisable(false);
+			Alerts.showAlert("Error loading department stats.", null, e.getMessage(), AlertType.ERROR);
+		});
+	}
+}
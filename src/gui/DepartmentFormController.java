@@ -7,7 +7,6 @@ import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
 
-import db.DBException;
 import gui.listeners.DataChangeListener;
 import gui.utils.Alerts;
 import gui.utils.Constraints;
@@ -19,6 +18,7 @@ import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
+import javafx.stage.Stage;
 import model.entities.Department;
 import model.exceptions.ValidationException;
 import model.service.DepartmentService;
@@ -30,6 +30,10 @@ public class DepartmentFormController implements Initializable {
 	private DepartmentService service;
 	
 	private List<DataChangeListener> dataChangeListeners = new ArrayList<>();
+	
+	// a janela  reaproveitada: cada abertura tem um nmero, e uma gravao
+	// que termina depois que o formulrio foi reaberto no mexe nele
+	private int formSession;
 
 	@FXML
 	private TextField txtId;
@@ -66,21 +70,37 @@ public class DepartmentFormController implements Initializable {
 		if(service== null) {
 			throw new IllegalStateException("Service was null.");
 		}
-		try { // Como  uma operao com acesso a BD,  preciso colocar em um try-catch
+		try {
 			entity = getFormData();
-			service.saveOrUpdate(entity);
-			notifyDataChangeListener();
-			Utils.currentStage(event).close(); // Para fechar a janela aps salvar no banco.
 		} catch(ValidationException e) {
 			setErrorMessages(e.getErrors());
-		}catch(DBException e) {
-			Alerts.showAlert("Error saving object.", null, e.getMessage(), AlertType.ERROR);
+			return;
 		}
+		// a gravao roda fora da thread do JavaFX; a janela fecha quando terminar
+		Stage stage = Utils.currentStage(event);
+		btSave.setDisable(true);
+		int session = formSession;
+		Department saving = entity;
+		Utils.runLaterWhenComplete(service.saveOrUpdateAsync(saving), obj -> {
+			notifyDataChangeListener(obj);
+			if(session == formSession) {
+				stage.close();
+			}
+		}, e -> {
+			if(session == formSession) {
+				btSave.setDisable(false);
+				Alerts.showAlert("Error saving object.", null, e.getMessage(), AlertType.ERROR);
+			} else {
+				// o formulrio j mostra outro registro: o erro diz de qual era
+				Alerts.showAlert("Error saving object.", "\"" + saving.getName() + "\" was not saved.", e.getMessage(),
+						AlertType.ERROR);
+			}
+		});
 	}
 	
-	private void notifyDataChangeListener() {
+	private void notifyDataChangeListener(Department obj) {
 		for(DataChangeListener listener : dataChangeListeners) {
-			listener.onDataChanged();
+			listener.onDataChanged(obj);
 		}
 	}
 
@@ -123,8 +143,12 @@ public class DepartmentFormController implements Initializable {
 		if(entity == null) {
 			throw new IllegalStateException("Entity was null.");
 		}
+		formSession++;
 		txtName.setText(entity.getName());
 		txtId.setText(String.valueOf(entity.getId()));
+		// a janela  reaproveitada (ver FormDialog): limpa o erro e o boto da abertura anterior
+		lblErrorName.setText("");
+		btSave.setDisable(false);
 	}
 	
 	private void setErrorMessages(Map<String, String> errors) {
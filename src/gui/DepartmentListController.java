@@ -2,32 +2,31 @@ package gui;
 
 import java.io.IOException;
 import java.net.URL;
-import java.util.List;
+import java.util.Comparator;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
-import application.Main;
-import db.DBIntegrityException;
+import application.StartupTimes;
 import gui.listeners.DataChangeListener;
 import gui.utils.Alerts;
+import gui.utils.ListPatcher;
 import gui.utils.Utils;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.layout.Pane;
-import javafx.stage.Modality;
 import javafx.stage.Stage;
 import model.entities.Department;
 import model.service.DepartmentService;
@@ -56,6 +55,11 @@ public class DepartmentListController implements Initializable, DataChangeListen
 	
 	private ObservableList<Department> obsList;
 	
+	// mesma ordem do ORDER BY Name do DAO
+	private static final Comparator<Department> ORDER = Comparator
+			.comparing(Department::getName, String.CASE_INSENSITIVE_ORDER)
+			.thenComparing(Department::getId);
+	
 	@FXML
 	public void onBtNewAction(ActionEvent event) {
 		Stage parentStage = Utils.currentStage(event);
@@ -78,10 +82,11 @@ public class DepartmentListController implements Initializable, DataChangeListen
 		tableColumnId.setCellValueFactory(new PropertyValueFactory<>("id"));
 		tableColumnName.setCellValueFactory(new PropertyValueFactory<>("name"));
 		
-		// getWindow() = pega a referncia da janela, window  uma superclasse de stage e por isso  necessrio fazer o downcasting 
-		Stage stage = (Stage) Main.getMainScene().getWindow();
 		// atravs desse comando, o taleView vai acompanhar a altura da janela
-		tableViewDepartment.prefHeightProperty().bind(stage.heightProperty());
+		Utils.bindHeightToMainStage(tableViewDepartment);
+		
+		initEditButtons();
+		initRemoveButtons();
 	}
 	
 	// Esse mtodo ser responsvel por acessar o servio, carregar os
@@ -98,31 +103,36 @@ public class DepartmentListController implements Initializable, DataChangeListen
 			throw new IllegalStateException("Service was null.");
 		}
 		
-		List<Department> list = service.findAll();
-		obsList = FXCollections.observableArrayList(list);
-		tableViewDepartment.setItems(obsList);
-		initEditButtons();
-		initRemoveButtons();
+		tableViewDepartment.setPlaceholder(new ProgressIndicator());
+		btNew.setDisable(true);
+		Utils.runLaterWhenComplete(service.findAllAsync(), list -> {
+			if(obsList == null) {
+				obsList = FXCollections.observableArrayList(list);
+				tableViewDepartment.setItems(obsList);
+				StartupTimes.firstTable(); // s conta a primeira vez
+			} else {
+				// s as linhas que mudaram so alteradas, sem perder scroll e seleo
+				ListPatcher.applyDiff(obsList, list, Department::getId, DepartmentListController::sameContent);
+			}
+			tableViewDepartment.setPlaceholder(new Label("No content in table"));
+			btNew.setDisable(false);
+		}, e -> {
+			tableViewDepartment.setPlaceholder(new Label("No content in table"));
+			btNew.setDisable(false);
+			Alerts.showAlert("Error loading departments.", null, e.getMessage(), AlertType.ERROR);
+		});
 	}
 	
 	private void createDialogForm(Department obj, String absoluteName, Stage parentStage) {
 		try {
-			FXMLLoader loader = new FXMLLoader(getClass().getResource(absoluteName));
-			Pane pane = loader.load();
-			
-			DepartmentFormController controller = loader.getController();
-			controller.setDepartment(obj);
-			controller.setDeparmentService(new DepartmentService()); // Aula 277, como no est sendo usado nenhum framework,  preciso ijetar manualmente
-			controller.subscribeDataChangeListener(this); // Aula 278
-			controller.updateFormData();
-			
-			Stage dialogStage = new Stage();
-			dialogStage.setTitle("Enter Department data");
-			dialogStage.setScene(new Scene(pane));
-			dialogStage.setResizable(false);
-			dialogStage.initOwner(parentStage);
-			dialogStage.initModality(Modality.WINDOW_MODAL); // esse mtodo que diz que a janela ser modal, deixando-a travada
-			dialogStage.showAndWait();
+			// a janela do formulrio  montada uma vez s (ver FormDialog); a cada abertura s os dados mudam
+			FormDialog.showAndWait(absoluteName, parentStage, "Enter Department data", (DepartmentFormController controller) -> {
+				controller.setDeparmentService(service); // Aula 277, como no est sendo usado nenhum framework,  preciso ijetar manualmente
+				controller.subscribeDataChangeListener(this); // Aula 278
+			}, controller -> {
+				controller.setDepartment(obj);
+				controller.updateFormData();
+			});
 		} catch(IOException e) {
 			e.printStackTrace();
 			Alerts.showAlert("IO Exception", "Error loading view", e.getMessage(), AlertType.ERROR);
@@ -134,6 +144,19 @@ public class DepartmentListController implements Initializable, DataChangeListen
 		updateTableView();
 	}
 	
+	@Override
+	public void onDataChanged(Object entity) {
+		if(obsList != null && entity instanceof Department) {
+			ListPatcher.patch(obsList, (Department) entity, Department::getId, ORDER);
+		} else {
+			updateTableView();
+		}
+	}
+	
+	private static boolean sameContent(Department a, Department b) {
+		return Objects.equals(a.getName(), b.getName());
+	}
+	
 	private void initEditButtons() {
 		tableColumnEdit.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue()));
 		tableColumnEdit.setCellFactory(param -> new TableCell<Department, Department>() {
@@ -181,12 +204,8 @@ public class DepartmentListController implements Initializable, DataChangeListen
 			if(service == null) {
 				throw new IllegalStateException("Service was null.");
 			}
-			try {
-				service.remove(obj);
-				updateTableView();
-			} catch(DBIntegrityException e) {
-				Alerts.showAlert("Error removing object.", null, e.getMessage(), AlertType.ERROR);
-			}
+			Utils.runLaterWhenComplete(service.removeAsync(obj),
+					x -> ListPatcher.remove(obsList, obj, Department::getId), "Error removing object.");
 		}
 	}
 }
@@ -0,0 +1,82 @@
+package gui;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+
+/*
+ * A modal form window that is built once per owner window and FXML file and
+ * then reused: opening it again only resets the controller and shows the
+ * same Stage. Use from the JavaFX thread.
+ *
+ * Opening is timed from the call to the window being shown, and an open
+ * slower than two frames (33 ms) is logged to stderr. The first open of each
+ * dialog includes reading the FXML.
+ */
+class FormDialog<C> {
+
+	private static final long SLOW_OPEN_NANOS = 33_000_000;
+
+	// the owners are long-lived list windows, so the dialogs are simply kept
+	private static final Map<Stage, Map<String, FormDialog<?>>> dialogs = new HashMap<>();
+
+	private final String absoluteName;
+	private final Stage stage;
+	private final C controller;
+	private long openStart;
+	private boolean opened;
+
+	private FormDialog(String absoluteName, Stage stage, C controller) {
+		this.absoluteName = absoluteName;
+		this.stage = stage;
+		this.controller = controller;
+		stage.setOnShown(e -> recordOpen());
+	}
+
+	/*
+	 * onCreate runs once, when the dialog is built (services, listeners);
+	 * onOpen runs on every open and must reset the form (setSeller,
+	 * updateFormData). Blocks until the dialog is closed.
+	 */
+	@SuppressWarnings("unchecked")
+	static <C> void showAndWait(String absoluteName, Stage owner, String title, Consumer<C> onCreate,
+			Consumer<C> onOpen) throws IOException {
+		long start = System.nanoTime();
+		Map<String, FormDialog<?>> byName = dialogs.computeIfAbsent(owner, o -> new HashMap<>());
+		FormDialog<C> dialog = (FormDialog<C>) byName.get(absoluteName);
+		if (dialog == null) {
+			FXMLLoader loader = new FXMLLoader(FormDialog.class.getResource(absoluteName));
+			Parent pane = loader.load();
+
+			Stage dialogStage = new Stage();
+			dialogStage.setTitle(title);
+			dialogStage.setScene(new Scene(pane));
+			dialogStage.setResizable(false);
+			dialogStage.initOwner(owner);
+			dialogStage.initModality(Modality.WINDOW_MODAL);
+			dialog = new FormDialog<>(absoluteName, dialogStage, loader.getController());
+			onCreate.accept(dialog.controller);
+			byName.put(absoluteName, dialog);
+		}
+		onOpen.accept(dialog.controller);
+		dialog.openStart = start;
+		dialog.stage.showAndWait();
+	}
+
+	private void recordOpen() {
+		long elapsed = System.nanoTime() - openStart;
+		boolean first = !opened;
+		opened = true;
+		if (elapsed > SLOW_OPEN_NANOS) {
+			System.err.println(String.format("Slow dialog open (%.1f ms%s): %s", elapsed / 1e6,
+					first ? ", first open" : "", absoluteName));
+		}
+	}
+}
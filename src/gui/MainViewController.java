@@ -1,14 +1,17 @@
 package gui;
 
-import java.io.IOException;
+import java.io.File;
 import java.net.URL;
 import java.util.ResourceBundle;
 import java.util.function.Consumer;
 
 import application.Main;
+import db.DB;
+import db.SlowQueryLog;
 import gui.utils.Alerts;
+import gui.utils.Utils;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
 import javafx.scene.Scene;
@@ -16,52 +19,143 @@ import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import model.service.DepartmentService;
+import model.service.SellerExporter;
 import model.service.SellerService;
+import model.service.ServiceExecutor;
 
 public class MainViewController implements Initializable {
 
+	private static final String SELLER_LIST = "/gui/SellerListView.fxml";
+	private static final String DEPARTMENT_LIST = "/gui/DepartmentListView.fxml";
+	private static final String DEPARTMENT_DASHBOARD = "/gui/DepartmentDashboardView.fxml";
+	private static final String ABOUT = "/gui/AboutView.fxml";
+	
+	// cada tela  lida do FXML uma vez s; os servios so os mesmos para todas as telas
+	private final ViewRegistry views = new ViewRegistry();
+	private SellerService sellerService;
+	private DepartmentService departmentService;
+	
 	@FXML
 	private MenuItem menuItemSeller;
 
 	@FXML
 	private MenuItem menuItemDepartment;
 
+	@FXML
+	private MenuItem menuItemDepartmentDashboard;
+	
+	@FXML
+	private MenuItem menuItemExportSellers;
+	
+	@FXML
+	private MenuItem menuItemSlowQueries;
+	
 	@FXML
 	private MenuItem menuItemAbout;
 	
 	@FXML
 	public void onMenuItemSellerAction() {
-		loadView("/gui/SellerListView.fxml", (SellerListController controller) -> {
-			controller.setSellerService(new SellerService());
+		loadView(SELLER_LIST, (SellerListController controller) -> {
+			controller.setSellerService(sellerService);
+			controller.loadDepartments();
 			controller.updateTableView();
 		});
 	}
 	
 	@FXML
 	public void onMenuItemDepartmentAction() {
-		loadView("/gui/DepartmentListView.fxml", (DepartmentListController controller) -> {
-			controller.setDepartmentService(new DepartmentService());
+		loadView(DEPARTMENT_LIST, (DepartmentListController controller) -> {
+			controller.setDepartmentService(departmentService);
 			controller.updateTableView();
 		});
 	}
 	
+	@FXML
+	public void onMenuItemDepartmentDashboardAction() {
+		// a leitura dos totais  O(departamentos), ento o painel  recarregado a cada exibio
+		views.markStale(DEPARTMENT_DASHBOARD);
+		loadView(DEPARTMENT_DASHBOARD, (DepartmentDashboardController controller) -> {
+			controller.setSellerService(sellerService);
+			controller.updateTableView();
+		});
+	}
+	
+	// o formato vem da extenso escolhida (.csv, .jsonl, com .gz para compactar)
+	@FXML
+	public void onMenuItemExportSellersAction() {
+		FileChooser fileChooser = new FileChooser();
+		fileChooser.setTitle("Export sellers");
+		fileChooser.setInitialFileName("sellers.csv");
+		fileChooser.getExtensionFilters().addAll(
+				new FileChooser.ExtensionFilter("CSV", "*.csv"),
+				new FileChooser.ExtensionFilter("CSV (gzip)", "*.csv.gz"),
+				new FileChooser.ExtensionFilter("JSON Lines", "*.jsonl"),
+				new FileChooser.ExtensionFilter("JSON Lines (gzip)", "*.jsonl.gz"));
+		File file = fileChooser.showSaveDialog(Main.getMainScene().getWindow());
+		if(file == null) {
+			return;
+		}
+		long start = System.nanoTime();
+		menuItemExportSellers.setDisable(true);
+		Utils.runLaterWhenComplete(
+				ServiceExecutor.supplyAsync(() -> new SellerExporter(sellerService).export(file.toPath())),
+				rows -> {
+					menuItemExportSellers.setDisable(false);
+					Alerts.showAlert("Export sellers", null, rows + " seller(s) exported to " + file.getName() + " in "
+							+ (System.nanoTime() - start) / 1_000_000 + " ms", AlertType.INFORMATION);
+				}, e -> {
+					menuItemExportSellers.setDisable(false);
+					Alerts.showAlert("Error exporting sellers.", null, e.getMessage(), AlertType.ERROR);
+				});
+	}
+	
+	// relatrio das consultas mais lentas desde que a aplicao abriu (ver SlowQueryLog)
+	@FXML
+	public void onMenuItemSlowQueriesAction() {
+		Utils.runLaterWhenComplete(ServiceExecutor.supplyAsync(() -> {
+			SlowQueryLog log = DB.getSlowQueryLog();
+			return log == null ? null : log.getReport();
+		}), report -> {
+			if(report == null) {
+				Alerts.showAlert("Slow Queries", null, "The slow-query log is off (slowQuery.thresholdMillis in db.properties).",
+						AlertType.INFORMATION);
+			} else {
+				Alerts.showText("Slow Queries", null, report);
+			}
+		}, "Error reading the slow-query log.");
+	}
+	
 	@FXML
 	public void onMenuItemAboutAction() {
-		loadView("/gui/AboutView.fxml", x -> {});
+		loadView(ABOUT, x -> {});
 	}
 	
 	@Override
 	public void initialize(URL url, ResourceBundle rb) {
-		//
-
+		sellerService = new SellerService();
+		departmentService = new DepartmentService();
+		// departamento alterado: as listas que mostram o nome do departamento recarregam na prxima exibio
+		departmentService.addChangeListener(() -> Platform.runLater(() -> {
+			views.markStale(SELLER_LIST);
+			views.markStale(DEPARTMENT_LIST);
+		}));
 	}
 	
-	private synchronized <T> void loadView(String absoluteName, Consumer<T> initializingAction) {
-		try {	
-			FXMLLoader loader = new FXMLLoader(getClass().getResource(absoluteName));
-			VBox newVBox = loader.load();
-			
+	// chamado pelo Main depois que a janela aparece: o FXML das telas  lido em segundo plano
+	public void prewarmViews() {
+		views.prewarm(SELLER_LIST, DEPARTMENT_LIST, DEPARTMENT_DASHBOARD, ABOUT);
+	}
+	
+	// descarta a tela em cache; o prximo clique no menu l o FXML de novo
+	public void reloadView(String absoluteName) {
+		views.reload(absoluteName);
+	}
+	
+	// a funo passada como argumento roda na primeira exibio e depois de markStale
+	private <T> void loadView(String absoluteName, Consumer<T> initializingAction) {
+		views.show(absoluteName, initializingAction, view -> {
 			Scene mainScene = Main.getMainScene();
 			
 			VBox mainVBox = (VBox) ((ScrollPane) mainScene.getRoot()).getContent();
@@ -69,12 +163,7 @@ public class MainViewController implements Initializable {
 			Node mainMenu = mainVBox.getChildren().get(0);
 			mainVBox.getChildren().clear();
 			mainVBox.getChildren().add(mainMenu);
-			mainVBox.getChildren().addAll(newVBox.getChildren());
-			
-			T controller = loader.getController(); // Essas duas linhas iro executar
-			initializingAction.accept(controller); // a funo passada como argumento
-		} catch (IOException e) {
-			Alerts.showAlert("IO Exception", "Error loading view", e.getMessage(), AlertType.ERROR);
-		}
+			mainVBox.getChildren().addAll(view.getNodes());
+		}, e -> Alerts.showAlert("IO Exception", "Error loading view", e.getMessage(), AlertType.ERROR));
 	}
 }
@@ -1,18 +1,16 @@
 package gui;
 
 import java.net.URL;
-import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
 
-import db.DBException;
 import gui.listeners.DataChangeListener;
 import gui.utils.Alerts;
 import gui.utils.Constraints;
@@ -30,12 +28,14 @@ import javafx.scene.control.Label;
 import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
+import javafx.stage.Stage;
 import javafx.util.Callback;
 import model.entities.Department;
 import model.entities.Seller;
 import model.exceptions.ValidationException;
 import model.service.DepartmentService;
 import model.service.SellerService;
+import model.service.SellerValidator;
 
 public class SellerFormController implements Initializable {
 	
@@ -46,6 +46,10 @@ public class SellerFormController implements Initializable {
 	private DepartmentService departmentService;
 	
 	private List<DataChangeListener> dataChangeListeners = new ArrayList<>();
+	
+	// a janela  reaproveitada: cada abertura tem um nmero, e uma gravao
+	// que termina depois que o formulrio foi reaberto no mexe nele
+	private int formSession;
 
 	@FXML
 	private TextField txtId;
@@ -106,60 +110,44 @@ public class SellerFormController implements Initializable {
 		if(service== null) {
 			throw new IllegalStateException("Service was null.");
 		}
-		try { // Como  uma operao com acesso a BD,  preciso colocar em um try-catch
+		try {
 			entity = getFormData();
-			service.saveOrUpdate(entity);
-			notifyDataChangeListener();
-			Utils.currentStage(event).close(); // Para fechar a janela aps salvar no banco.
 		} catch(ValidationException e) {
 			setErrorMessages(e.getErrors());
-		}catch(DBException e) {
-			Alerts.showAlert("Error saving object.", null, e.getMessage(), AlertType.ERROR);
+			return;
 		}
+		// a gravao roda fora da thread do JavaFX; a janela fecha quando terminar
+		Stage stage = Utils.currentStage(event);
+		btSave.setDisable(true);
+		int session = formSession;
+		Seller saving = entity;
+		Utils.runLaterWhenComplete(service.saveOrUpdateAsync(saving), obj -> {
+			notifyDataChangeListener(obj);
+			if(session == formSession) {
+				stage.close();
+			}
+		}, e -> {
+			if(session == formSession) {
+				btSave.setDisable(false);
+				Alerts.showAlert("Error saving object.", null, e.getMessage(), AlertType.ERROR);
+			} else {
+				// o formulrio j mostra outro registro: o erro diz de qual era
+				Alerts.showAlert("Error saving object.", "\"" + saving.getName() + "\" was not saved.", e.getMessage(),
+						AlertType.ERROR);
+			}
+		});
 	}
 	
-	private void notifyDataChangeListener() {
+	private void notifyDataChangeListener(Seller obj) {
 		for(DataChangeListener listener : dataChangeListeners) {
-			listener.onDataChanged();
+			listener.onDataChanged(obj);
 		}
 	}
 
+	// as regras ficam no SellerValidator, que tambm  usado pela importao de CSV
 	private Seller getFormData() {
-		Seller obj = new Seller();
-		
-		ValidationException exception = new ValidationException("Validation error.");
-		
-		obj.setId(Utils.tryParseToInt(txtId.getText()));
-		
-		if(txtName.getText() == null || txtName.getText().trim().equals("")) {
-			exception.addError("name", "Field can't be empty.");
-		}
-		obj.setName(txtName.getText());
-		
-		if(txtEmail.getText() == null || txtEmail.getText().trim().equals("")) {
-			exception.addError("email", "Field can't be empty.");
-		}
-		obj.setEmail(txtEmail.getText());
-		
-		if(dpBirthDate.getValue() == null) {
-			exception.addError("birthDate", "Field can't be empty.");
-		} else {
-			Instant instant = Instant.from(dpBirthDate.getValue().atStartOfDay(ZoneId.systemDefault()));
-			obj.setBirthDate(Date.from(instant));
-		}
-		
-		if(txtBaseSalary.getText() == null || txtBaseSalary.getText().trim().equals("")) {
-			exception.addError("baseSalary", "Field can't be empty.");
-		}
-		obj.setBaseSalary(Utils.tryParseToDouble(txtBaseSalary.getText()));
-		
-		obj.setDepartment(comboBoxDepartment.getValue());
-		
-		if(exception.getErrors().size() > 0) {
-			throw exception;
-		}
-		
-		return obj;
+		return SellerValidator.validate(Utils.tryParseToInt(txtId.getText()), txtName.getText(), txtEmail.getText(),
+				dpBirthDate.getValue(), txtBaseSalary.getText(), comboBoxDepartment.getValue());
 	}
 
 	@FXML
@@ -175,9 +163,9 @@ public class SellerFormController implements Initializable {
 
 	private void initializeNodes() {
 		Constraints.setTextFieldInteger(txtId);
-		Constraints.setTextFieldMaxLength(txtName, 70);
+		Constraints.setTextFieldMaxLength(txtName, SellerValidator.NAME_MAX_LENGTH);
 		Constraints.setTextFieldDouble(txtBaseSalary);
-		Constraints.setTextFieldMaxLength(txtEmail, 60);
+		Constraints.setTextFieldMaxLength(txtEmail, SellerValidator.EMAIL_MAX_LENGTH);
 		Utils.formatDatePicker(dpBirthDate, "dd/MM/yyyy");
 		
 		initializeComboBoxDepartment();
@@ -187,29 +175,50 @@ public class SellerFormController implements Initializable {
 		if(entity == null) {
 			throw new IllegalStateException("Entity was null.");
 		}
+		formSession++;
 		txtName.setText(entity.getName());
 		txtId.setText(String.valueOf(entity.getId()));
 		txtEmail.setText(entity.getEmail());
-		Locale.setDefault(Locale.US);
-		txtBaseSalary.setText(String.format("%.2f", entity.getBaseSalary()));
-		if(entity.getBirthDate() != null) {
-			dpBirthDate.setValue(LocalDate.ofInstant(entity.getBirthDate().toInstant(), ZoneId.systemDefault()));
-		}
+		txtBaseSalary.setText(String.format(Locale.US, "%.2f", entity.getBaseSalary()));
+		// a janela  reaproveitada (ver FormDialog): o que sobrou da abertura anterior  limpo aqui
+		dpBirthDate.setValue(entity.getBirthDate() == null ? null
+				: LocalDate.ofInstant(entity.getBirthDate().toInstant(), ZoneId.systemDefault()));
+		setErrorMessages(Collections.emptyMap());
+		btSave.setDisable(false);
 		
-		if(entity.getDepartment() == null) {
-			comboBoxDepartment.getSelectionModel().selectFirst();
-		} else {
-			comboBoxDepartment.setValue(entity.getDepartment());
-		}
+		selectDepartment();
 	}
 	
 	public void loadAssociatedObjects() {
 		if(departmentService == null) {
 			throw new IllegalStateException("DepartmentService was null.");
 		}
-		List<Department> list = departmentService.findAll(); // Aula 287 - crio uma lista de Department
+		// com os departamentos no cache compartilhado, a lista  montada na hora, sem ir ao banco
+		List<Department> cached = departmentService.findAllIfCached();
+		if(cached != null) {
+			setDepartments(cached);
+			return;
+		}
+		comboBoxDepartment.setDisable(true);
+		comboBoxDepartment.setPromptText("Loading...");
+		Utils.runLaterWhenComplete(departmentService.findAllAsync(), this::setDepartments, "Error loading departments.");
+	}
+	
+	private void setDepartments(List<Department> list) { // Aula 287 - crio uma lista de Department
 		obsList = FXCollections.observableArrayList(list); // adiciono ao observableList a lista de departamentos
 		comboBoxDepartment.setItems(obsList); // adiciono ao combo box o observableList
+		comboBoxDepartment.setPromptText(null);
+		comboBoxDepartment.setDisable(false);
+		selectDepartment();
+	}
+	
+	// a lista chega depois do updateFormData, ento a seleo  refeita aqui
+	private void selectDepartment() {
+		if(entity == null || entity.getDepartment() == null) {
+			comboBoxDepartment.getSelectionModel().selectFirst();
+		} else {
+			comboBoxDepartment.setValue(entity.getDepartment());
+		}
 	}
 	
 	private void setErrorMessages(Map<String, String> errors) {
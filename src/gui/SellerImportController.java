@@ -0,0 +1,179 @@
+package gui;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import gui.listeners.DataChangeListener;
+import gui.utils.Alerts;
+import gui.utils.Utils;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressBar;
+import model.service.DepartmentService;
+import model.service.ImportProgress;
+import model.service.SellerCsvImport;
+import model.service.SellerService;
+import model.service.ServiceExecutor;
+
+public class SellerImportController implements Initializable, SellerCsvImport.Listener {
+	
+	// a lista mostra s os primeiros erros; o contador mostra todos
+	private static final int MAX_SHOWN_ERRORS = 1000;
+	
+	private SellerService sellerService;
+	
+	private DepartmentService departmentService;
+	
+	private SellerCsvImport importer;
+	
+	private List<DataChangeListener> dataChangeListeners = new ArrayList<>();
+	
+	// preenchidos pela thread da importao e lidos na thread do JavaFX
+	private final AtomicReference<ImportProgress> lastProgress = new AtomicReference<>();
+	private final ConcurrentLinkedQueue<String> pendingErrors = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean updateScheduled = new AtomicBoolean();
+	
+	@FXML
+	private Label lblFile;
+	
+	@FXML
+	private ProgressBar progressBar;
+	
+	@FXML
+	private Label lblProgress;
+	
+	@FXML
+	private Label lblThroughput;
+	
+	@FXML
+	private Label lblErrorCount;
+	
+	@FXML
+	private ListView<String> listViewErrors;
+	
+	@FXML
+	private Button btCancel;
+	
+	@FXML
+	private Button btClose;
+	
+	public void setServices(SellerService sellerService, DepartmentService departmentService) {
+		this.sellerService = sellerService;
+		this.departmentService = departmentService;
+	}
+	
+	public void subscribeDataChangeListener(DataChangeListener listener) {
+		dataChangeListeners.add(listener);
+	}
+	
+	public void startImport(File file) {
+		if(sellerService == null || departmentService == null) {
+			throw new IllegalStateException("Service was null.");
+		}
+		lblFile.setText(file.getAbsolutePath());
+		importer = new SellerCsvImport(file.toPath(), sellerService, departmentService);
+		Utils.runLaterWhenComplete(ServiceExecutor.supplyAsync(() -> importer.run(this)), result -> {
+			updateView();
+			finish(result.isCancelled() ? "Import cancelled." : "Import finished.");
+		}, e -> {
+			updateView();
+			finish("Import failed.");
+			Alerts.showAlert("Error importing sellers.", null, e.getMessage(), AlertType.ERROR);
+		});
+	}
+	
+	// fechar a janela durante a importao tambm cancela
+	public void cancel() {
+		if(importer != null) {
+			importer.cancel();
+		}
+	}
+	
+	@FXML
+	public void onBtCancelAction() {
+		cancel();
+		btCancel.setDisable(true);
+		lblProgress.setText("Cancelling...");
+	}
+	
+	@FXML
+	public void onBtCloseAction(ActionEvent event) {
+		Utils.currentStage(event).close();
+	}
+	
+	@Override
+	public void onProgress(ImportProgress progress) {
+		lastProgress.set(progress);
+		scheduleUpdate();
+	}
+	
+	@Override
+	public void onError(long line, String message) {
+		pendingErrors.add("Line " + line + ": " + message);
+		scheduleUpdate();
+	}
+	
+	// no mximo um runLater pendente por vez, mesmo com milhares de linhas por segundo
+	private void scheduleUpdate() {
+		if(updateScheduled.compareAndSet(false, true)) {
+			Platform.runLater(() -> {
+				updateScheduled.set(false);
+				updateView();
+			});
+		}
+	}
+	
+	private void updateView() {
+		List<String> errors = new ArrayList<>();
+		String error;
+		while((error = pendingErrors.poll()) != null) {
+			if(listViewErrors.getItems().size() + errors.size() < MAX_SHOWN_ERRORS) {
+				errors.add(error);
+			}
+		}
+		listViewErrors.getItems().addAll(errors);
+		
+		ImportProgress progress = lastProgress.get();
+		if(progress == null) {
+			return;
+		}
+		progressBar.setProgress(progress.getFraction());
+		lblProgress.setText(progress.getRowsRead() + " row(s) read, " + progress.getImported() + " imported");
+		lblThroughput.setText(String.format("%.0f rows/s, %.1f s", progress.getRowsPerSecond(),
+				progress.getElapsedSeconds()));
+		lblErrorCount.setText(progress.getFailed() + " error(s)"
+				+ (progress.getFailed() > MAX_SHOWN_ERRORS ? " (first " + MAX_SHOWN_ERRORS + " shown)" : ""));
+	}
+	
+	private void finish(String message) {
+		lblProgress.setText(message + " " + lblProgress.getText());
+		btCancel.setDisable(true);
+		btClose.setDisable(false);
+		notifyDataChangeListeners();
+	}
+	
+	private void notifyDataChangeListeners() {
+		for(DataChangeListener listener : dataChangeListeners) {
+			listener.onDataChanged();
+		}
+	}
+	
+	@Override
+	public void initialize(URL url, ResourceBundle rb) {
+		listViewErrors.setItems(FXCollections.observableArrayList());
+		listViewErrors.setPlaceholder(new Label("No errors"));
+	}
+}
@@ -1,20 +1,24 @@
 package gui;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
-import application.Main;
-import db.DBIntegrityException;
+import application.StartupTimes;
 import gui.listeners.DataChangeListener;
 import gui.utils.Alerts;
+import gui.utils.Constraints;
+import gui.utils.PagedList;
 import gui.utils.Utils;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -23,13 +27,24 @@ import javafx.scene.Scene;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.Pane;
+import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Callback;
+import model.dao.SellerCriteria;
+import model.entities.Department;
 import model.entities.Seller;
 import model.service.DepartmentService;
 import model.service.SellerService;
@@ -65,7 +80,56 @@ public class SellerListController implements Initializable, DataChangeListener {
 	@FXML
 	private Button btNew;
 	
-	private ObservableList<Seller> obsList;
+	@FXML
+	private TextField txtNamePrefix;
+	
+	@FXML
+	private TextField txtEmailDomain;
+	
+	@FXML
+	private ComboBox<Department> comboBoxDepartment;
+	
+	@FXML
+	private TextField txtMinBaseSalary;
+	
+	@FXML
+	private TextField txtMaxBaseSalary;
+	
+	@FXML
+	private DatePicker dpMinBirthDate;
+	
+	@FXML
+	private DatePicker dpMaxBirthDate;
+	
+	@FXML
+	private Button btImport;
+	
+	@FXML
+	private Button btSearch;
+	
+	@FXML
+	private Button btClearFilter;
+	
+	@FXML
+	private Label lblSearchInfo;
+	
+	// a tabela s carrega as pginas que aparecem na tela (ver PagedList)
+	private static final int PAGE_SIZE = 100;
+	private static final int MAX_CACHED_PAGES = 20;
+	private static final Seller LOADING = new Seller(null, "Loading...", null, null, null, null);
+	
+	private final PagedList<Seller> pagedList = new PagedList<>(PAGE_SIZE, MAX_CACHED_PAGES, LOADING);
+	
+	// filtro atual; vazio = lista completa
+	private SellerCriteria criteria = new SellerCriteria();
+	
+	// ordenao feita no banco, escolhida pelo cabealho da coluna
+	private SellerCriteria.Sort sortBy = SellerCriteria.Sort.NAME;
+	private boolean descending;
+	
+	// descarta respostas de buscas que j foram substitudas por outra
+	private int loadRequests;
+	private boolean pageErrorShown;
 	
 	@FXML
 	public void onBtNewAction(ActionEvent event) {
@@ -74,6 +138,53 @@ public class SellerListController implements Initializable, DataChangeListener {
 		createDialogForm(obj, "/gui/SellerFormView.fxml", parentStage);
 	}
 	
+	// o arquivo  lido em streaming e gravado em lotes (ver SellerCsvImport)
+	@FXML
+	public void onBtImportAction(ActionEvent event) {
+		Stage parentStage = Utils.currentStage(event);
+		FileChooser fileChooser = new FileChooser();
+		fileChooser.setTitle("Import sellers");
+		fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+		File file = fileChooser.showOpenDialog(parentStage);
+		if(file != null) {
+			createImportDialog(file, parentStage);
+		}
+	}
+	
+	// a busca  feita no banco (SellerDao.search), no na lista j carregada
+	@FXML
+	public void onBtSearchAction() {
+		SellerCriteria newCriteria = new SellerCriteria();
+		newCriteria.setNamePrefix(txtNamePrefix.getText());
+		newCriteria.setEmailDomain(txtEmailDomain.getText());
+		if(comboBoxDepartment.getValue() != null) {
+			newCriteria.setDepartmentIds(List.of(comboBoxDepartment.getValue().getId()));
+		}
+		newCriteria.setMinBaseSalary(Utils.tryParseToDouble(txtMinBaseSalary.getText()));
+		newCriteria.setMaxBaseSalary(Utils.tryParseToDouble(txtMaxBaseSalary.getText()));
+		newCriteria.setMinBirthDate(toDate(dpMinBirthDate.getValue()));
+		newCriteria.setMaxBirthDate(toDate(dpMaxBirthDate.getValue()));
+		criteria = newCriteria;
+		updateTableView();
+	}
+	
+	@FXML
+	public void onBtClearFilterAction() {
+		txtNamePrefix.clear();
+		txtEmailDomain.clear();
+		comboBoxDepartment.setValue(null);
+		txtMinBaseSalary.clear();
+		txtMaxBaseSalary.clear();
+		dpMinBirthDate.setValue(null);
+		dpMaxBirthDate.setValue(null);
+		criteria = new SellerCriteria();
+		updateTableView();
+	}
+	
+	private static Date toDate(LocalDate date) {
+		return date == null ? null : Date.from(Instant.from(date.atStartOfDay(ZoneId.systemDefault())));
+	}
+	
 	public void setSellerService(SellerService service) {
 		this.service = service;
 	}
@@ -94,10 +205,91 @@ public class SellerListController implements Initializable, DataChangeListener {
 		tableColumnBaseSalary.setCellValueFactory(new PropertyValueFactory<>("baseSalary"));
 		Utils.formatTableColumnDouble(tableColumnBaseSalary, 2);
 		
-		// getWindow() = pega a referncia da janela, window  uma superclasse de stage e por isso  necessrio fazer o downcasting 
-		Stage stage = (Stage) Main.getMainScene().getWindow();
 		// atravs desse comando, o taleView vai acompanhar a altura da janela
-		tableViewSeller.prefHeightProperty().bind(stage.heightProperty());
+		Utils.bindHeightToMainStage(tableViewSeller);
+		
+		initEditButtons();
+		initRemoveButtons();
+		initFilterNodes();
+		
+		tableViewSeller.setItems(pagedList);
+		tableColumnEdit.setSortable(false);
+		tableColumnRemove.setSortable(false);
+		// a lista no  ordenada em memria: o clique no cabealho vira ORDER BY
+		tableViewSeller.setSortPolicy(tv -> {
+			onSortChanged();
+			return true;
+		});
+		// a tabela s tem dados quando chega a primeira pgina (firstTable s conta a primeira vez)
+		pagedList.setOnPageLoaded(StartupTimes::firstTable);
+		pagedList.setOnError(e -> {
+			if(!pageErrorShown) {
+				pageErrorShown = true;
+				Alerts.showAlert("Error loading sellers.", null, e.getMessage(), AlertType.ERROR);
+			}
+		});
+	}
+	
+	// s a primeira coluna da ordenao  usada; o desempate  sempre pelo Id
+	private void onSortChanged() {
+		SellerCriteria.Sort newSortBy = SellerCriteria.Sort.NAME;
+		boolean newDescending = false;
+		if(!tableViewSeller.getSortOrder().isEmpty()) {
+			TableColumn<Seller, ?> column = tableViewSeller.getSortOrder().get(0);
+			newSortBy = sortFor(column);
+			newDescending = column.getSortType() == TableColumn.SortType.DESCENDING;
+		}
+		if(newSortBy != sortBy || newDescending != descending) {
+			sortBy = newSortBy;
+			descending = newDescending;
+			if(service != null) {
+				updateTableView();
+			}
+		}
+	}
+	
+	private SellerCriteria.Sort sortFor(TableColumn<Seller, ?> column) {
+		if(column == tableColumnId) {
+			return SellerCriteria.Sort.ID;
+		}
+		if(column == tableColumnEmail) {
+			return SellerCriteria.Sort.EMAIL;
+		}
+		if(column == tableColumnBirthDate) {
+			return SellerCriteria.Sort.BIRTH_DATE;
+		}
+		if(column == tableColumnBaseSalary) {
+			return SellerCriteria.Sort.BASE_SALARY;
+		}
+		return SellerCriteria.Sort.NAME;
+	}
+	
+	private void initFilterNodes() {
+		Constraints.setTextFieldDouble(txtMinBaseSalary);
+		Constraints.setTextFieldDouble(txtMaxBaseSalary);
+		Utils.formatDatePicker(dpMinBirthDate, "dd/MM/yyyy");
+		Utils.formatDatePicker(dpMaxBirthDate, "dd/MM/yyyy");
+		dpMinBirthDate.setPromptText("Born from");
+		dpMaxBirthDate.setPromptText("Born until");
+		
+		Callback<ListView<Department>, ListCell<Department>> factory = lv -> new ListCell<Department>() {
+			@Override
+			protected void updateItem(Department item, boolean empty) {
+				super.updateItem(item, empty);
+				setText(empty || item == null ? "All departments" : item.getName());
+			}
+		};
+		comboBoxDepartment.setCellFactory(factory);
+		comboBoxDepartment.setButtonCell(factory.call(null));
+	}
+	
+	// chamado pelo MainViewController na primeira exibio e quando os departamentos mudam
+	public void loadDepartments() {
+		Utils.runLaterWhenComplete(new DepartmentService().findAllAsync(), list -> {
+			Department selected = comboBoxDepartment.getValue();
+			comboBoxDepartment.setItems(FXCollections.observableArrayList(list));
+			comboBoxDepartment.setValue(selected);
+		}, "Error loading departments.");
 	}
 	
 	public void updateTableView() {
@@ -105,43 +297,131 @@ public class SellerListController implements Initializable, DataChangeListener {
 			throw new IllegalStateException("Service was null.");
 		}
 		
-		List<Seller> list = service.findAll();
-		obsList = FXCollections.observableArrayList(list);
-		tableViewSeller.setItems(obsList);
-		initEditButtons();
-		initRemoveButtons();
+		tableViewSeller.setPlaceholder(new ProgressIndicator());
+		btNew.setDisable(true);
+		btSearch.setDisable(true);
+		criteria.setSortBy(sortBy);
+		criteria.setDescending(descending);
+		SellerCriteria current = criteria.withWindow(0, PAGE_SIZE);
+		int request = ++loadRequests;
+		// primeiro s a contagem; as linhas vm pgina a pgina conforme a rolagem
+		Utils.runLaterWhenComplete(service.countAsync(current), count -> {
+			if(request != loadRequests) {
+				return;
+			}
+			pageErrorShown = false;
+			pagedList.reset((offset, limit) -> service.searchAsync(current.withWindow(offset, limit)), count);
+			tableViewSeller.setPlaceholder(new Label("No content in table"));
+			btNew.setDisable(false);
+			btSearch.setDisable(false);
+			lblSearchInfo.setText(searchInfo(current, count));
+		}, e -> {
+			tableViewSeller.setPlaceholder(new Label("No content in table"));
+			btNew.setDisable(false);
+			btSearch.setDisable(false);
+			Alerts.showAlert("Error loading sellers.", null, e.getMessage(), AlertType.ERROR);
+		});
+	}
+	
+	// mesma busca, dados alterados: as linhas na tela so recarregadas sem piscar
+	private void refreshRows() {
+		SellerCriteria current = criteria.withWindow(0, PAGE_SIZE);
+		int request = loadRequests;
+		Utils.runLaterWhenComplete(service.countAsync(current), count -> {
+			if(request != loadRequests) {
+				return;
+			}
+			pageErrorShown = false;
+			pagedList.refresh(count);
+			lblSearchInfo.setText(searchInfo(current, count));
+		}, "Error loading sellers.");
+	}
+
+	private static String searchInfo(SellerCriteria criteria, int count) {
+		if(criteria.isEmpty()) {
+			return count + " seller(s)";
+		}
+		return count + " seller(s) found";
 	}
 
 	private void createDialogForm(Seller obj, String absoluteName, Stage parentStage) {
 		try {
-			FXMLLoader loader = new FXMLLoader(getClass().getResource(absoluteName));
+			// a janela do formulrio  montada uma vez s (ver FormDialog); a cada abertura s os dados mudam
+			FormDialog.showAndWait(absoluteName, parentStage, "Enter Seller data", (SellerFormController controller) -> {
+				controller.setServices(service, new DepartmentService()); // Aula 277, como no est sendo usado nenhum framework,  preciso ijetar manualmente
+				controller.subscribeDataChangeListener(this); // Aula 278
+			}, controller -> {
+				controller.setSeller(obj);
+				controller.loadAssociatedObjects();
+				controller.updateFormData();
+			});
+		} catch(IOException e) {
+			e.printStackTrace();
+			Alerts.showAlert("IO Exception", "Error loading view", e.getMessage(), AlertType.ERROR);
+		}
+	}
+
+	private void createImportDialog(File file, Stage parentStage) {
+		try {
+			FXMLLoader loader = new FXMLLoader(getClass().getResource("/gui/SellerImportView.fxml"));
 			Pane pane = loader.load();
 			
-			SellerFormController controller = loader.getController();
-			controller.setSeller(obj);
-			controller.setServices(new SellerService(), new DepartmentService()); // Aula 277, como no est sendo usado nenhum framework,  preciso ijetar manualmente
-			controller.loadAssociatedObjects();
-			controller.subscribeDataChangeListener(this); // Aula 278
-			controller.updateFormData();
+			SellerImportController controller = loader.getController();
+			controller.setServices(new SellerService(), new DepartmentService());
+			controller.subscribeDataChangeListener(this);
 			
 			Stage dialogStage = new Stage();
-			dialogStage.setTitle("Enter Seller data");
+			dialogStage.setTitle("Import sellers");
 			dialogStage.setScene(new Scene(pane));
-			dialogStage.setResizable(false);
 			dialogStage.initOwner(parentStage);
-			dialogStage.initModality(Modality.WINDOW_MODAL); // esse mtodo que diz que a janela ser modal, deixando-a travada
+			dialogStage.initModality(Modality.WINDOW_MODAL);
+			dialogStage.setOnHidden(e -> controller.cancel());
+			controller.startImport(file);
 			dialogStage.showAndWait();
 		} catch(IOException e) {
 			e.printStackTrace();
 			Alerts.showAlert("IO Exception", "Error loading view", e.getMessage(), AlertType.ERROR);
 		}
 	}
-
+	
 	@Override
 	public void onDataChanged() { // Aula 278
 		updateTableView();
 	}
 	
+	@Override
+	public void onDataChanged(Object entity) {
+		if(service == null) {
+			return;
+		}
+		// se o vendedor continua no mesmo lugar (ordenao e filtro), s a linha dele  trocada
+		if(entity instanceof Seller) {
+			Seller obj = (Seller) entity;
+			int index = indexOfLoaded(obj);
+			if(index >= 0 && criteria.keepsPlace(pagedList.getLoaded(index), obj)) {
+				pagedList.replaceLoaded(index, obj);
+				return;
+			}
+		}
+		// vendedor novo ou que mudou de posio: recarrega as pginas
+		refreshRows();
+	}
+	
+	// o vendedor removido sai da pgina carregada; as linhas seguintes sobem uma posio
+	private void onEntityRemoved(Seller obj) {
+		int index = indexOfLoaded(obj);
+		if(index < 0) {
+			refreshRows();
+			return;
+		}
+		pagedList.removeLoaded(index);
+		lblSearchInfo.setText(searchInfo(criteria, pagedList.size()));
+	}
+	
+	private int indexOfLoaded(Seller obj) {
+		return pagedList.indexOfLoaded(row -> row.getId() != null && row.getId().equals(obj.getId()));
+	}
+	
 	private void initEditButtons() {
 		tableColumnEdit.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue()));
 		tableColumnEdit.setCellFactory(param -> new TableCell<Seller, Seller>() {
@@ -151,7 +431,7 @@ public class SellerListController implements Initializable, DataChangeListener {
 			@Override
 			protected void updateItem(Seller obj, boolean empty) {
 				super.updateItem(obj, empty);
-				if (obj == null) {
+				if (obj == null || pagedList.isPlaceholder(obj)) {
 					setGraphic(null);
 					return;
 				}
@@ -171,7 +451,7 @@ public class SellerListController implements Initializable, DataChangeListener {
 			@Override
 			protected void updateItem(Seller obj, boolean empty) {
 				super.updateItem(obj, empty);
-				if (obj == null) {
+				if (obj == null || pagedList.isPlaceholder(obj)) {
 					setGraphic(null);
 					return;
 				}
@@ -189,12 +469,8 @@ public class SellerListController implements Initializable, DataChangeListener {
 			if(service == null) {
 				throw new IllegalStateException("Service was null.");
 			}
-			try {
-				service.remove(obj);
-				updateTableView();
-			} catch(DBIntegrityException e) {
-				Alerts.showAlert("Error removing object.", null, e.getMessage(), AlertType.ERROR);
-			}
+			Utils.runLaterWhenComplete(service.removeAsync(obj),
+					x -> onEntityRemoved(obj), "Error removing object.");
 		}
 	}
 }
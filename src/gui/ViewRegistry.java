@@ -0,0 +1,121 @@
+package gui;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import gui.utils.Utils;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.layout.VBox;
+import model.service.ServiceExecutor;
+
+/*
+ * Parses each view once and keeps its nodes and controller, so showing a
+ * screen again only swaps nodes into the main window. prewarm() loads views
+ * on a background thread (FXML may be loaded off the JavaFX thread while the
+ * nodes aren't in a live scene); a view that isn't ready yet is waited for,
+ * and one whose background load failed is loaded again on the JavaFX thread.
+ *
+ * A view's initializing action runs the first time it is shown and again
+ * after markStale(), which is how views with stale data get reloaded.
+ * reload() throws the view away so the next show parses it again.
+ *
+ * Only the latest show() attaches its view: a view that finishes loading
+ * after the user picked another screen is left alone (and still stale, so it
+ * initializes when it is shown).
+ */
+class ViewRegistry {
+
+	static class View {
+
+		private final List<Node> nodes;
+		private final Object controller;
+		private volatile boolean stale = true;
+
+		View(List<Node> nodes, Object controller) {
+			this.nodes = nodes;
+			this.controller = controller;
+		}
+
+		List<Node> getNodes() {
+			return nodes;
+		}
+	}
+
+	private final Map<String, CompletableFuture<View>> views = new ConcurrentHashMap<>();
+	// bumped by each show(), on the JavaFX thread
+	private int requests;
+
+	void prewarm(String... absoluteNames) {
+		for (String name : absoluteNames) {
+			views.computeIfAbsent(name, n -> ServiceExecutor.supplyAsync(() -> load(n)));
+		}
+	}
+
+	// Calls onReady on the JavaFX thread, right away when the view is already loaded.
+	@SuppressWarnings("unchecked")
+	<T> void show(String absoluteName, Consumer<T> initializingAction, Consumer<View> onReady,
+			Consumer<Throwable> onError) {
+		int request = ++requests;
+		CompletableFuture<View> future = views.get(absoluteName);
+		if (future == null || future.isCompletedExceptionally()) {
+			try {
+				future = CompletableFuture.completedFuture(load(absoluteName));
+			} catch (UncheckedIOException e) {
+				onError.accept(e.getCause());
+				return;
+			}
+			views.put(absoluteName, future);
+		}
+		Consumer<View> attach = view -> {
+			onReady.accept(view);
+			if (view.stale) {
+				view.stale = false;
+				initializingAction.accept((T) view.controller);
+			}
+		};
+		if (future.isDone()) {
+			attach.accept(future.join());
+		} else {
+			Utils.runLaterWhenComplete(future, view -> {
+				if (request == requests) {
+					attach.accept(view);
+				}
+			}, e -> {
+				if (request != requests) {
+					return;
+				}
+				views.remove(absoluteName);
+				show(absoluteName, initializingAction, onReady, onError);
+			});
+		}
+	}
+
+	void markStale(String absoluteName) {
+		CompletableFuture<View> future = views.get(absoluteName);
+		if (future != null && future.isDone() && !future.isCompletedExceptionally()) {
+			future.join().stale = true;
+		}
+	}
+
+	void reload(String absoluteName) {
+		views.remove(absoluteName);
+	}
+
+	private View load(String absoluteName) {
+		try {
+			FXMLLoader loader = new FXMLLoader(getClass().getResource(absoluteName));
+			VBox newVBox = loader.load();
+			// the nodes move into the main window's VBox when shown
+			return new View(new ArrayList<>(newVBox.getChildren()), loader.getController());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e.getMessage(), e);
+		}
+	}
+}
@@ -3,4 +3,10 @@ package gui.listeners;
 public interface DataChangeListener {
 
 	void onDataChanged();
+	
+	// Called with the saved object when the sender knows it, so the listener
+	// can patch just that row; by default it reloads everything.
+	default void onDataChanged(Object entity) {
+		onDataChanged();
+	}
 }
@@ -5,6 +5,7 @@ import java.util.Optional;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.TextArea;
 
 public class Alerts {
 	
@@ -16,6 +17,19 @@ public class Alerts {
 		alert.show();
 	}
 	
+	// for long texts such as reports: scrollable, and the text can be copied
+	public static void showText(String title, String header, String text) {
+		TextArea textArea = new TextArea(text);
+		textArea.setEditable(false);
+		textArea.setWrapText(false);
+		Alert alert = new Alert(AlertType.INFORMATION);
+		alert.setTitle(title);
+		alert.setHeaderText(header);
+		alert.getDialogPane().setContent(textArea);
+		alert.setResizable(true);
+		alert.show();
+	}
+	
 	public static Optional<ButtonType> showConfirmation(String title, String content) {
 		Alert alert = new Alert(AlertType.CONFIRMATION);
 		alert.setTitle(title);
@@ -0,0 +1,123 @@
+package gui.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Shared text formats for table cells. One instance per pattern (or number
+ * of decimals) serves every cell of every column, and remembers the text of
+ * recently formatted values in a small direct-mapped memo, so repainting
+ * cells while scrolling formats nothing and allocates nothing for values
+ * already seen. The memo is two-way: a value can sit in its slot or the
+ * neighbouring one, and a new value pushes the slot's previous one there.
+ * Nothing here reads or writes the default Locale: decimals always use '.',
+ * like the old Locale.US formatting.
+ *
+ * Memo slots hold immutable entries, so concurrent use is safe; a race only
+ * costs a second formatting of the same value.
+ */
+public abstract class CellFormat<T> {
+
+	private static final int MEMO_SIZE = 1024;
+
+	private static final Map<String, CellFormat<Date>> dateFormats = new ConcurrentHashMap<>();
+	private static final Map<Integer, CellFormat<Double>> decimalFormats = new ConcurrentHashMap<>();
+
+	private final Entry[] memo = new Entry[MEMO_SIZE];
+
+	// pattern as in DateTimeFormatter, in the default time zone
+	public static CellFormat<Date> date(String pattern) {
+		return dateFormats.computeIfAbsent(pattern, DateFormat::new);
+	}
+
+	// like String.format("%.<decimalPlaces>f") in Locale.US
+	public static CellFormat<Double> decimal(int decimalPlaces) {
+		return decimalFormats.computeIfAbsent(decimalPlaces, DecimalFormat::new);
+	}
+
+	public String format(T item) {
+		long key = key(item);
+		// spread the bits: dates are multiples of a day, doubles differ mostly in the high bits
+		int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 54) & (MEMO_SIZE - 1);
+		Entry entry = memo[slot];
+		if (entry != null && entry.key == key) {
+			return entry.text;
+		}
+		Entry other = memo[slot ^ 1];
+		if (other != null && other.key == key) {
+			return other.text;
+		}
+		String text = compute(item);
+		if (entry != null) {
+			memo[slot ^ 1] = entry;
+		}
+		memo[slot] = new Entry(key, text);
+		return text;
+	}
+
+	abstract long key(T item);
+
+	abstract String compute(T item);
+
+	private static class Entry {
+
+		private final long key;
+		private final String text;
+
+		Entry(long key, String text) {
+			this.key = key;
+			this.text = text;
+		}
+	}
+
+	private static class DateFormat extends CellFormat<Date> {
+
+		private final DateTimeFormatter formatter;
+
+		DateFormat(String pattern) {
+			formatter = DateTimeFormatter.ofPattern(pattern).withZone(ZoneId.systemDefault());
+		}
+
+		@Override
+		long key(Date item) {
+			return item.getTime();
+		}
+
+		@Override
+		String compute(Date item) {
+			return formatter.format(Instant.ofEpochMilli(item.getTime()));
+		}
+	}
+
+	private static class DecimalFormat extends CellFormat<Double> {
+
+		private final int decimalPlaces;
+
+		DecimalFormat(int decimalPlaces) {
+			this.decimalPlaces = decimalPlaces;
+		}
+
+		@Override
+		long key(Double item) {
+			return Double.doubleToLongBits(item);
+		}
+
+		// rounds the shortest decimal form of the double half up, as Formatter does
+		@Override
+		String compute(Double item) {
+			if (item.isNaN() || item.isInfinite()) {
+				return item.toString();
+			}
+			String text = BigDecimal.valueOf(item).setScale(decimalPlaces, RoundingMode.HALF_UP).toPlainString();
+			// BigDecimal has no negative zero: -0.001 is "-0.00" for Formatter
+			boolean negative = item < 0 || (item == 0 && 1 / item < 0);
+			return negative && text.charAt(0) != '-' ? "-" + text : text;
+		}
+	}
+}
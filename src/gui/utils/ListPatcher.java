@@ -0,0 +1,94 @@
+package gui.utils;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+import javafx.collections.ObservableList;
+
+/*
+ * Updates the ObservableList behind a TableView in place, so only the rows
+ * that really changed are re-rendered and the table keeps its scroll
+ * position and selection.
+ */
+public class ListPatcher {
+
+	// Turns target into source with removes, inserts and replaces keyed by id.
+	// sameContent tells whether two objects with the same id look the same on screen.
+	public static <T> void applyDiff(ObservableList<T> target, List<T> source, Function<T, Integer> id,
+			BiPredicate<T, T> sameContent) {
+		Set<Integer> sourceIds = new HashSet<>();
+		for (T obj : source) {
+			sourceIds.add(id.apply(obj));
+		}
+		for (int i = target.size() - 1; i >= 0; i--) {
+			if (!sourceIds.contains(id.apply(target.get(i)))) {
+				target.remove(i);
+			}
+		}
+
+		Map<Integer, T> remaining = new HashMap<>();
+		for (T obj : target) {
+			remaining.put(id.apply(obj), obj);
+		}
+		for (int i = 0; i < source.size(); i++) {
+			T wanted = source.get(i);
+			Integer wantedId = id.apply(wanted);
+			if (i < target.size() && id.apply(target.get(i)).equals(wantedId)) {
+				if (!sameContent.test(target.get(i), wanted)) {
+					target.set(i, wanted);
+				}
+			} else if (remaining.containsKey(wantedId)) {
+				// moved: its sort key changed
+				target.remove(indexOf(target, wantedId, id, i + 1));
+				target.add(i, wanted);
+			} else {
+				target.add(i, wanted);
+			}
+			remaining.remove(wantedId);
+		}
+		if (target.size() > source.size()) {
+			target.remove(source.size(), target.size());
+		}
+	}
+
+	// Replaces (or inserts) a single object, keeping the list sorted by order.
+	public static <T> void patch(ObservableList<T> target, T obj, Function<T, Integer> id, Comparator<T> order) {
+		int current = indexOf(target, id.apply(obj), id, 0);
+		if (current >= 0) {
+			boolean stillSorted = (current == 0 || order.compare(target.get(current - 1), obj) <= 0)
+					&& (current == target.size() - 1 || order.compare(obj, target.get(current + 1)) <= 0);
+			if (stillSorted) {
+				target.set(current, obj);
+				return;
+			}
+			target.remove(current);
+		}
+		int position = 0;
+		while (position < target.size() && order.compare(target.get(position), obj) <= 0) {
+			position++;
+		}
+		target.add(position, obj);
+	}
+
+	public static <T> void remove(ObservableList<T> target, T obj, Function<T, Integer> id) {
+		int index = indexOf(target, id.apply(obj), id, 0);
+		if (index >= 0) {
+			target.remove(index);
+		}
+	}
+
+	private static <T> int indexOf(List<T> list, Integer wantedId, Function<T, Integer> id, int from) {
+		for (int i = from; i < list.size(); i++) {
+			if (id.apply(list.get(i)).equals(wantedId)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,237 @@
+package gui.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import javafx.collections.ObservableListBase;
+
+/*
+ * Read-only ObservableList for a TableView over a large query. It only knows
+ * the total row count up front; rows are fetched a page at a time when the
+ * table asks for them, and until a page arrives its rows are the placeholder
+ * object. Loaded pages are kept in an LRU of maxPages, and the page after
+ * each requested one is prefetched.
+ *
+ * Must only be used from the JavaFX thread; the loader runs the query in the
+ * background and the result is applied with Platform.runLater.
+ */
+public class PagedList<T> extends ObservableListBase<T> {
+
+	public interface PageLoader<T> {
+		CompletableFuture<List<T>> load(int offset, int limit);
+	}
+
+	private final int pageSize;
+	private final int maxPages;
+	private final T placeholder;
+
+	private PageLoader<T> loader;
+	private int size;
+	private final LinkedHashMap<Integer, List<T>> pages;
+	// pages from before refresh(): shown until their replacement arrives
+	private Map<Integer, List<T>> stale = new HashMap<>();
+	private final Set<Integer> loading = new HashSet<>();
+	// bumped by reset/refresh, so late results of an old query are dropped
+	private long generation;
+	private Consumer<Throwable> onError;
+	private Runnable onPageLoaded;
+
+	public PagedList(int pageSize, int maxPages, T placeholder) {
+		this.pageSize = pageSize;
+		this.maxPages = maxPages;
+		this.placeholder = placeholder;
+		this.pages = new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+				return size() > PagedList.this.maxPages;
+			}
+		};
+	}
+
+	public void setOnError(Consumer<Throwable> onError) {
+		this.onError = onError;
+	}
+
+	// Called after the rows of a fetched page are in the list.
+	public void setOnPageLoaded(Runnable onPageLoaded) {
+		this.onPageLoaded = onPageLoaded;
+	}
+
+	// New query (filter or sort changed): every row becomes a placeholder.
+	public void reset(PageLoader<T> loader, int size) {
+		this.loader = loader;
+		stale = new HashMap<>();
+		replaceAll(size);
+	}
+
+	// Same query, data changed: old rows stay on screen until reloaded.
+	public void refresh(int size) {
+		stale = new HashMap<>(pages);
+		replaceAll(size);
+	}
+
+	public boolean isPlaceholder(T obj) {
+		return obj == placeholder;
+	}
+
+	@Override
+	public T get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		int page = index / pageSize;
+		List<T> rows = pages.get(page);
+		if (rows == null) {
+			request(page);
+			rows = pages.getOrDefault(page, stale.get(page));
+		}
+		// always keep the next page coming, so scrolling down rarely waits
+		request(page + 1);
+		int offset = index - page * pageSize;
+		return rows != null && offset < rows.size() ? rows.get(offset) : placeholder;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	// Index of the first loaded row that matches, or -1; pages not in memory aren't searched.
+	public int indexOfLoaded(Predicate<? super T> match) {
+		for (Map.Entry<Integer, List<T>> entry : pages.entrySet()) {
+			List<T> rows = entry.getValue();
+			for (int i = 0; i < rows.size(); i++) {
+				if (match.test(rows.get(i))) {
+					return entry.getKey() * pageSize + i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	// The row at index if its page is loaded, else null; never starts a load.
+	public T getLoaded(int index) {
+		List<T> rows = pages.get(index / pageSize);
+		int offset = index % pageSize;
+		return rows != null && offset < rows.size() ? rows.get(offset) : null;
+	}
+
+	// Same query, one changed row that keeps its place: a single replace, so
+	// the table keeps its selection and nothing is fetched again.
+	public void replaceLoaded(int index, T row) {
+		List<T> rows = loadedPageOf(index);
+		T old = rows.set(index % pageSize, row);
+		beginChange();
+		nextSet(index, old);
+		endChange();
+	}
+
+	// One row deleted from the result: the rows after it move up by one. Each
+	// loaded page of the contiguous run after the row lends its first row to
+	// the page before it; the page that ends the run goes back to stale and is
+	// fetched again, and loaded pages past a gap (the LRU keeps scattered
+	// pages) are dropped, since their offsets are off by one now.
+	public void removeLoaded(int index) {
+		List<T> rows = loadedPageOf(index);
+		T old = rows.remove(index % pageSize);
+		size--;
+		// pages in flight and stale pages were read with the old offsets
+		generation++;
+		loading.clear();
+		stale = new HashMap<>();
+		int page = index / pageSize;
+		while (true) {
+			int wanted = Math.min(pageSize, size - page * pageSize);
+			if (rows.size() >= wanted) {
+				break;
+			}
+			List<T> next = pages.get(page + 1);
+			if (next == null || next.isEmpty()) {
+				pages.remove(page);
+				stale.put(page, rows);
+				break;
+			}
+			rows.add(next.remove(0));
+			rows = next;
+			page++;
+		}
+		int last = page;
+		pages.keySet().removeIf(p -> p > last);
+		beginChange();
+		nextRemove(index, old);
+		endChange();
+	}
+
+	public int getLoadedPageCount() {
+		return pages.size();
+	}
+
+	private List<T> loadedPageOf(int index) {
+		List<T> rows = pages.get(index / pageSize);
+		if (rows == null || index % pageSize >= rows.size()) {
+			throw new IllegalStateException("Row " + index + " is not loaded.");
+		}
+		return rows;
+	}
+
+	private void replaceAll(int newSize) {
+		generation++;
+		pages.clear();
+		loading.clear();
+		int oldSize = size;
+		size = newSize;
+		// one replace of the whole range: constant cost even for a million rows
+		beginChange();
+		if (oldSize > 0) {
+			nextRemove(0, Collections.nCopies(oldSize, placeholder));
+		}
+		if (newSize > 0) {
+			nextAdd(0, newSize);
+		}
+		endChange();
+	}
+
+	private void request(int page) {
+		if (loader == null || page * pageSize >= size || pages.containsKey(page) || !loading.add(page)) {
+			return;
+		}
+		long gen = generation;
+		Utils.runLaterWhenComplete(loader.load(page * pageSize, pageSize), rows -> {
+			if (gen != generation) {
+				return;
+			}
+			loading.remove(page);
+			pages.put(page, new ArrayList<>(rows));
+			stale.remove(page);
+			int from = page * pageSize;
+			int to = Math.min(from + rows.size(), size);
+			if (from < to) {
+				beginChange();
+				for (int i = from; i < to; i++) {
+					nextSet(i, placeholder);
+				}
+				endChange();
+			}
+			if (onPageLoaded != null) {
+				onPageLoaded.run();
+			}
+		}, e -> {
+			// the page stays in "loading" so it is not retried on every repaint;
+			// the next reset or refresh tries again
+			if (onError != null) {
+				onError.accept(e);
+			}
+		});
+	}
+}
@@ -1,16 +1,22 @@
 package gui.utils;
 
-import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Date;
-import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
+import application.Main;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.scene.Node;
+import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.DatePicker;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
+import javafx.scene.layout.Region;
 import javafx.stage.Stage;
 import javafx.util.StringConverter;
 
@@ -20,6 +26,41 @@ public class Utils {
 		return (Stage) ((Node) event.getSource()).getScene().getWindow();
 	}
 
+	// Views may be loaded off the JavaFX thread (ViewRegistry), so the binding to the live stage is made on it.
+	public static void bindHeightToMainStage(Region region) {
+		Runnable bind = () -> region.prefHeightProperty().bind(Main.getMainScene().getWindow().heightProperty());
+		if (Platform.isFxApplicationThread()) {
+			bind.run();
+		} else {
+			Platform.runLater(bind);
+		}
+	}
+
+	// Hands the result of an async service call back to the JavaFX thread.
+	public static <T> void runLaterWhenComplete(CompletableFuture<T> future, Consumer<T> onSuccess,
+			Consumer<Throwable> onError) {
+		future.whenComplete((result, exception) -> Platform.runLater(() -> {
+			if (exception == null) {
+				onSuccess.accept(result);
+			} else {
+				onError.accept(unwrap(exception));
+			}
+		}));
+	}
+
+	public static <T> void runLaterWhenComplete(CompletableFuture<T> future, Consumer<T> onSuccess,
+			String errorTitle) {
+		runLaterWhenComplete(future, onSuccess,
+				e -> Alerts.showAlert(errorTitle, null, e.getMessage(), AlertType.ERROR));
+	}
+
+	private static Throwable unwrap(Throwable e) {
+		while ((e instanceof CompletionException || e instanceof ExecutionException) && e.getCause() != null) {
+			e = e.getCause();
+		}
+		return e;
+	}
+
 	public static Integer tryParseToInt(String str) {
 		try {
 			return Integer.parseInt(str);
@@ -36,18 +77,19 @@ public class Utils {
 		}
 	}
 	
+	// The cells share one CellFormat: no formatter per cell and no formatting
+	// (or allocation) for values shown before.
 	public static <T> void formatTableColumnDate(TableColumn<T, Date> tableColumn, String format) {
+		CellFormat<Date> cellFormat = CellFormat.date(format);
 		tableColumn.setCellFactory(column -> {
 			TableCell<T, Date> cell = new TableCell<T, Date>() {
-				private SimpleDateFormat sdf = new SimpleDateFormat(format);
-
 				@Override
 				protected void updateItem(Date item, boolean empty) {
 					super.updateItem(item, empty);
-					if (empty) {
+					if (empty || item == null) {
 						setText(null);
 					} else {
-						setText(sdf.format(item));
+						setText(cellFormat.format(item));
 					}
 				}
 			};
@@ -56,16 +98,16 @@ public class Utils {
 	}
 
 	public static <T> void formatTableColumnDouble(TableColumn<T, Double> tableColumn, int decimalPlaces) {
+		CellFormat<Double> cellFormat = CellFormat.decimal(decimalPlaces);
 		tableColumn.setCellFactory(column -> {
 			TableCell<T, Double> cell = new TableCell<T, Double>() {
 				@Override
 				protected void updateItem(Double item, boolean empty) {
 					super.updateItem(item, empty);
-					if (empty) {
+					if (empty || item == null) {
 						setText(null);
 					} else {
-						Locale.setDefault(Locale.US);
-						setText(String.format("%." + decimalPlaces + "f", item));
+						setText(cellFormat.format(item));
 					}
 				}
 			};
@@ -0,0 +1,124 @@
+package model.analytics;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import model.entities.SellerTable;
+
+/*
+ * Seller count and salary total per (age band, department). Ages are taken on
+ * a fixed date: the band limits are turned into birth-date cut-offs once, so
+ * classifying a row is a few int comparisons on its epoch day. Sellers without
+ * a birth date go to the last band. Mergeable like SalarySketch.
+ */
+public class AgeBandHistogram {
+
+	public static final int[] DEFAULT_LIMITS = { 20, 30, 40, 50, 60 };
+
+	private final int[] limits;
+	// cutOffs[k]: born on or before this day means at least limits[k] years old
+	private final int[] cutOffs;
+	private final int departments;
+	private final long[] counts;
+	private final double[] salaryTotals;
+
+	public AgeBandHistogram(int[] limits, LocalDate asOf, int departments) {
+		this(limits.clone(), cutOffs(limits, asOf), departments);
+	}
+
+	private AgeBandHistogram(int[] limits, int[] cutOffs, int departments) {
+		this.limits = limits;
+		this.cutOffs = cutOffs;
+		this.departments = departments;
+		this.counts = new long[getBandCount() * departments];
+		this.salaryTotals = new double[getBandCount() * departments];
+	}
+
+	private static int[] cutOffs(int[] limits, LocalDate asOf) {
+		int[] cutOffs = new int[limits.length];
+		for (int k = 0; k < limits.length; k++) {
+			if (k > 0 && limits[k] <= limits[k - 1]) {
+				throw new IllegalArgumentException("Age limits must be increasing.");
+			}
+			cutOffs[k] = (int) asOf.minusYears(limits[k]).toEpochDay();
+		}
+		return cutOffs;
+	}
+
+	// same bands, no data: for the per-task partials
+	AgeBandHistogram emptyCopy() {
+		return new AgeBandHistogram(limits, cutOffs, departments);
+	}
+
+	public void add(int birthEpochDay, int department, double salary) {
+		int cell = band(birthEpochDay) * departments + department;
+		counts[cell]++;
+		salaryTotals[cell] += salary;
+	}
+
+	public AgeBandHistogram merge(AgeBandHistogram other) {
+		if (!Arrays.equals(cutOffs, other.cutOffs) || departments != other.departments) {
+			throw new IllegalArgumentException("Histograms with different bands can't be merged.");
+		}
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+			salaryTotals[i] += other.salaryTotals[i];
+		}
+		return this;
+	}
+
+	private int band(int birthEpochDay) {
+		if (birthEpochDay == SellerTable.NO_DATE) {
+			return limits.length + 1;
+		}
+		int band = 0;
+		while (band < cutOffs.length && birthEpochDay <= cutOffs[band]) {
+			band++;
+		}
+		return band;
+	}
+
+	// limits.length + 1 age bands, plus one for "unknown"
+	public int getBandCount() {
+		return limits.length + 2;
+	}
+
+	public String getBandLabel(int band) {
+		if (band == limits.length + 1) {
+			return "unknown";
+		}
+		if (band == 0) {
+			return "<" + limits[0];
+		}
+		if (band == limits.length) {
+			return limits[band - 1] + "+";
+		}
+		return limits[band - 1] + "-" + (limits[band] - 1);
+	}
+
+	public long getCount(int band, int department) {
+		return counts[band * departments + department];
+	}
+
+	public long getCount(int band) {
+		long total = 0;
+		for (int d = 0; d < departments; d++) {
+			total += counts[band * departments + d];
+		}
+		return total;
+	}
+
+	public double getAverageSalary(int band, int department) {
+		long count = getCount(band, department);
+		return count == 0 ? Double.NaN : salaryTotals[band * departments + department] / count;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("AgeBandHistogram [");
+		for (int band = 0; band < getBandCount(); band++) {
+			sb.append(band == 0 ? "" : ", ").append(getBandLabel(band)).append('=').append(getCount(band));
+		}
+		return sb.append(']').toString();
+	}
+}
@@ -0,0 +1,161 @@
+package model.analytics;
+
+/*
+ * Mergeable summary of a set of salaries: exact count, sum, min and max, and
+ * a quantile sketch with a relative error of at most RELATIVE_ACCURACY.
+ * Values fall into logarithmic buckets (bucket i holds (gamma^(i-1), gamma^i]),
+ * so two sketches merge by adding their bucket counts, whatever the order or
+ * split of the rows. Only the range of buckets actually used is allocated.
+ * Not thread-safe: each task fills its own sketch and they are merged after.
+ */
+public class SalarySketch {
+
+	public static final double RELATIVE_ACCURACY = 0.01;
+
+	private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+	private static final double LOG_GAMMA = Math.log(GAMMA);
+	// anything below this (including negative values) is counted as zero
+	private static final double MIN_VALUE = 1e-6;
+
+	private long count;
+	private double sum;
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+	private long zeroCount;
+	private long[] buckets;
+	// bucket index of buckets[0]
+	private int offset;
+
+	public void add(double value) {
+		count++;
+		sum += value;
+		if (value < min) {
+			min = value;
+		}
+		if (value > max) {
+			max = value;
+		}
+		if (value < MIN_VALUE) {
+			zeroCount++;
+			return;
+		}
+		int index = (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+		ensureRange(index, index);
+		buckets[index - offset]++;
+	}
+
+	public SalarySketch merge(SalarySketch other) {
+		if (other.count == 0) {
+			return this;
+		}
+		count += other.count;
+		sum += other.sum;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+		zeroCount += other.zeroCount;
+		if (other.buckets != null) {
+			ensureRange(other.offset, other.offset + other.buckets.length - 1);
+			for (int i = 0; i < other.buckets.length; i++) {
+				buckets[other.offset + i - offset] += other.buckets[i];
+			}
+		}
+		return this;
+	}
+
+	private void ensureRange(int from, int to) {
+		if (buckets == null) {
+			buckets = new long[to - from + 1];
+			offset = from;
+			return;
+		}
+		int end = offset + buckets.length - 1;
+		if (from >= offset && to <= end) {
+			return;
+		}
+		int newOffset = Math.min(from, offset);
+		int newEnd = Math.max(to, end);
+		// grow with some slack, salaries near the edges tend to keep coming
+		int slack = (newEnd - newOffset + 1) / 4;
+		if (newOffset < offset) {
+			newOffset -= slack;
+		}
+		if (newEnd > end) {
+			newEnd += slack;
+		}
+		long[] grown = new long[newEnd - newOffset + 1];
+		System.arraycopy(buckets, 0, grown, offset - newOffset, buckets.length);
+		buckets = grown;
+		offset = newOffset;
+	}
+
+	// q in [0, 1]; NaN when empty
+	public double quantile(double q) {
+		if (q < 0 || q > 1) {
+			throw new IllegalArgumentException("Quantile must be between 0 and 1.");
+		}
+		if (count == 0) {
+			return Double.NaN;
+		}
+		if (q == 0) {
+			return min;
+		}
+		if (q == 1) {
+			return max;
+		}
+		long rank = (long) Math.floor(q * (count - 1));
+		if (rank < zeroCount) {
+			return Math.max(min, 0.0);
+		}
+		long seen = zeroCount;
+		for (int i = 0; i < buckets.length; i++) {
+			seen += buckets[i];
+			if (seen > rank) {
+				double value = 2 * Math.pow(GAMMA, offset + i) / (GAMMA + 1);
+				return Math.min(max, Math.max(min, value));
+			}
+		}
+		return max;
+	}
+
+	public double[] quantiles(double... qs) {
+		double[] result = new double[qs.length];
+		for (int i = 0; i < qs.length; i++) {
+			result[i] = quantile(qs[i]);
+		}
+		return result;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public double getSum() {
+		return sum;
+	}
+
+	public double getMean() {
+		return count == 0 ? Double.NaN : sum / count;
+	}
+
+	public double getMin() {
+		return count == 0 ? Double.NaN : min;
+	}
+
+	public double getMax() {
+		return count == 0 ? Double.NaN : max;
+	}
+
+	public int getBucketCount() {
+		return buckets == null ? 0 : buckets.length;
+	}
+
+	@Override
+	public String toString() {
+		if (count == 0) {
+			return "SalarySketch [count=0]";
+		}
+		double[] q = quantiles(0.25, 0.5, 0.75, 0.9, 0.99);
+		return "SalarySketch [count=" + count + ", mean=" + getMean() + ", min=" + min + ", p25=" + q[0] + ", p50="
+				+ q[1] + ", p75=" + q[2] + ", p90=" + q[3] + ", p99=" + q[4] + ", max=" + max + "]";
+	}
+}
@@ -0,0 +1,166 @@
+package model.analytics;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import model.entities.SellerTable;
+
+/*
+ * Salary analytics over a SellerTable, split across a ForkJoinPool. Each leaf
+ * task scans a range of rows straight from the primitive columns into its own
+ * partial result (sketches and histogram), and partials are merged on the way
+ * back up, so there is no shared state and no locking while scanning.
+ *
+ * Outliers are found with Tukey's fences per department: a salary below
+ * Q1 - k * IQR or above Q3 + k * IQR of its department (k = 1.5 is usual).
+ */
+public class SellerAnalytics {
+
+	// big enough that splitting costs little next to the scan
+	private static final int LEAF_ROWS = 16_384;
+
+	private final ForkJoinPool pool;
+
+	public SellerAnalytics() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	public SellerAnalytics(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	public SellerReport analyze(SellerTable table, LocalDate asOf, double outlierFactor) {
+		long start = System.nanoTime();
+		int departments = table.getDepartments().size();
+		Partial empty = new Partial(departments,
+				new AgeBandHistogram(AgeBandHistogram.DEFAULT_LIMITS, asOf, departments));
+		Partial result = pool.invoke(new ScanTask(table, 0, table.size(), empty));
+
+		double[] low = new double[departments];
+		double[] high = new double[departments];
+		for (int d = 0; d < departments; d++) {
+			SalarySketch sketch = result.byDepartment[d];
+			double q1 = sketch.quantile(0.25);
+			double q3 = sketch.quantile(0.75);
+			low[d] = q1 - outlierFactor * (q3 - q1);
+			high[d] = q3 + outlierFactor * (q3 - q1);
+		}
+		int[] outliers = pool.invoke(new OutlierTask(table, 0, table.size(), low, high));
+
+		return new SellerReport(table, result.overall, result.byDepartment, result.histogram, outliers,
+				System.nanoTime() - start, pool.getParallelism());
+	}
+
+	private static class Partial {
+
+		private final SalarySketch overall = new SalarySketch();
+		private final SalarySketch[] byDepartment;
+		private final AgeBandHistogram histogram;
+
+		Partial(int departments, AgeBandHistogram histogram) {
+			byDepartment = new SalarySketch[departments];
+			for (int d = 0; d < departments; d++) {
+				byDepartment[d] = new SalarySketch();
+			}
+			this.histogram = histogram;
+		}
+
+		Partial emptyCopy() {
+			return new Partial(byDepartment.length, histogram.emptyCopy());
+		}
+
+		Partial merge(Partial other) {
+			overall.merge(other.overall);
+			for (int d = 0; d < byDepartment.length; d++) {
+				byDepartment[d].merge(other.byDepartment[d]);
+			}
+			histogram.merge(other.histogram);
+			return this;
+		}
+	}
+
+	private static class ScanTask extends RecursiveTask<Partial> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final SellerTable table;
+		private final int from;
+		private final int to;
+		private final Partial template;
+
+		ScanTask(SellerTable table, int from, int to, Partial template) {
+			this.table = table;
+			this.from = from;
+			this.to = to;
+			this.template = template;
+		}
+
+		@Override
+		protected Partial compute() {
+			if (to - from <= LEAF_ROWS) {
+				Partial partial = template.emptyCopy();
+				for (int row = from; row < to; row++) {
+					double salary = table.getBaseSalary(row);
+					int department = table.getDepartmentIndex(row);
+					partial.overall.add(salary);
+					partial.byDepartment[department].add(salary);
+					partial.histogram.add(table.getBirthEpochDay(row), department, salary);
+				}
+				return partial;
+			}
+			int middle = (from + to) >>> 1;
+			ScanTask left = new ScanTask(table, from, middle, template);
+			left.fork();
+			Partial right = new ScanTask(table, middle, to, template).compute();
+			return left.join().merge(right);
+		}
+	}
+
+	private static class OutlierTask extends RecursiveTask<int[]> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final SellerTable table;
+		private final int from;
+		private final int to;
+		private final double[] low;
+		private final double[] high;
+
+		OutlierTask(SellerTable table, int from, int to, double[] low, double[] high) {
+			this.table = table;
+			this.from = from;
+			this.to = to;
+			this.low = low;
+			this.high = high;
+		}
+
+		@Override
+		protected int[] compute() {
+			if (to - from <= LEAF_ROWS) {
+				int[] rows = new int[16];
+				int n = 0;
+				for (int row = from; row < to; row++) {
+					double salary = table.getBaseSalary(row);
+					int department = table.getDepartmentIndex(row);
+					if (salary < low[department] || salary > high[department]) {
+						if (n == rows.length) {
+							rows = Arrays.copyOf(rows, n * 2);
+						}
+						rows[n++] = row;
+					}
+				}
+				return Arrays.copyOf(rows, n);
+			}
+			int middle = (from + to) >>> 1;
+			OutlierTask left = new OutlierTask(table, from, middle, low, high);
+			left.fork();
+			int[] right = new OutlierTask(table, middle, to, low, high).compute();
+			int[] leftRows = left.join();
+			int[] rows = Arrays.copyOf(leftRows, leftRows.length + right.length);
+			System.arraycopy(right, 0, rows, leftRows.length, right.length);
+			return rows;
+		}
+	}
+}
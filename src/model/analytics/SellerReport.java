@@ -0,0 +1,79 @@
+package model.analytics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.entities.Department;
+import model.entities.Seller;
+import model.entities.SellerTable;
+
+// Result of SellerAnalytics.analyze. Department indexes are those of the SellerTable.
+public class SellerReport {
+
+	private final SellerTable table;
+	private final SalarySketch overall;
+	private final SalarySketch[] byDepartment;
+	private final AgeBandHistogram ageHistogram;
+	private final int[] outlierRows;
+	private final long elapsedNanos;
+	private final int parallelism;
+
+	SellerReport(SellerTable table, SalarySketch overall, SalarySketch[] byDepartment, AgeBandHistogram ageHistogram,
+			int[] outlierRows, long elapsedNanos, int parallelism) {
+		this.table = table;
+		this.overall = overall;
+		this.byDepartment = byDepartment;
+		this.ageHistogram = ageHistogram;
+		this.outlierRows = outlierRows;
+		this.elapsedNanos = elapsedNanos;
+		this.parallelism = parallelism;
+	}
+
+	public SalarySketch getSalarySketch() {
+		return overall;
+	}
+
+	public List<Department> getDepartments() {
+		return table.getDepartments();
+	}
+
+	public SalarySketch getSalarySketch(int departmentIndex) {
+		return byDepartment[departmentIndex];
+	}
+
+	public SalarySketch getSalarySketch(Department department) {
+		int index = getDepartments().indexOf(department);
+		return index < 0 ? new SalarySketch() : byDepartment[index];
+	}
+
+	public AgeBandHistogram getAgeHistogram() {
+		return ageHistogram;
+	}
+
+	public int getOutlierCount() {
+		return outlierRows.length;
+	}
+
+	public List<Seller> getOutliers() {
+		List<Seller> list = new ArrayList<>(outlierRows.length);
+		for (int row : outlierRows) {
+			list.add(table.getSeller(row));
+		}
+		return list;
+	}
+
+	public double getElapsedMillis() {
+		return elapsedNanos / 1_000_000.0;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	@Override
+	public String toString() {
+		return "SellerReport [rows=" + table.size() + ", salary=" + overall + ", " + ageHistogram + ", outliers="
+				+ outlierRows.length + ", elapsedMs=" + String.format("%.1f", getElapsedMillis()) + ", parallelism="
+				+ parallelism + "]";
+	}
+}
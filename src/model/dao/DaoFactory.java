@@ -1,16 +1,58 @@
 package model.dao;
 
 import db.DB;
+import model.dao.impl.CachingDepartmentDao;
+import model.dao.impl.CachingSellerDao;
 import model.dao.impl.DepartmentDaoJDBC;
+import model.dao.impl.InstrumentedDao;
 import model.dao.impl.SellerDaoJDBC;
 
 public class DaoFactory {
 
-	public static SellerDao createSellerDao() {
-		return new SellerDaoJDBC(DB.getConnection());
+	private static CachingDepartmentDao departmentDao;
+	
+	private static SellerDao sellerDao;
+
+	// Shared by every SellerService so they all see the same findById cache
+	// (cache.seller.maxEntries and cache.seller.maxKilobytes, 0 turns it off).
+	public static synchronized SellerDao createSellerDao() {
+		if (sellerDao == null) {
+			int maxEntries = DB.getIntProperty("cache.seller.maxEntries", 10000);
+			long maxBytes = DB.getIntProperty("cache.seller.maxKilobytes", 4096) * 1024L;
+			if (maxEntries > 0 && maxBytes > 0) {
+				CachingSellerDao cache = new CachingSellerDao(createSellerDaoJDBC(), maxEntries, maxBytes);
+				// cached sellers carry their department name
+				createDepartmentDao().addInvalidationListener(cache::clear);
+				sellerDao = cache;
+			} else {
+				sellerDao = createSellerDaoJDBC();
+			}
+		}
+		return sellerDao;
+	}
+	
+	// Shared by every DepartmentService so they all see the same department cache
+	// (cache.department.ttlSeconds in db.properties, 0 turns it off).
+	public static synchronized CachingDepartmentDao createDepartmentDao() {
+		if (departmentDao == null) {
+			long ttlSeconds = DB.getIntProperty("cache.department.ttlSeconds", 300);
+			departmentDao = new CachingDepartmentDao(createDepartmentDaoJDBC(), ttlSeconds * 1000);
+		}
+		return departmentDao;
+	}
+	
+	// metrics.enabled=true times the database calls, under the caches (see InstrumentedDao)
+	private static SellerDao createSellerDaoJDBC() {
+		SellerDao dao = new SellerDaoJDBC();
+		return isMetricsEnabled() ? InstrumentedDao.wrap(SellerDao.class, dao, "SellerDao") : dao;
+	}
+	
+	private static DepartmentDao createDepartmentDaoJDBC() {
+		DepartmentDao dao = new DepartmentDaoJDBC();
+		return isMetricsEnabled() ? InstrumentedDao.wrap(DepartmentDao.class, dao, "DepartmentDao") : dao;
 	}
 	
-	public static DepartmentDao createDepartmentDao() {
-		return new DepartmentDaoJDBC(DB.getConnection());
+	private static boolean isMetricsEnabled() {
+		return Boolean.parseBoolean(DB.getProperties().getProperty("metrics.enabled", "false").trim());
 	}
 }
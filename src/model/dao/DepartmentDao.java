@@ -9,6 +9,9 @@ public interface DepartmentDao {
 	void insert(Department obj);
 	void update(Department obj);
 	void deleteById(Integer id);
+	void insertAll(List<Department> list);
+	void updateAll(List<Department> list);
+	void deleteAllById(List<Integer> ids);
 	Department findById(Integer id);
 	List<Department> findAll();
 }
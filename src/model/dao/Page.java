@@ -0,0 +1,51 @@
+package model.dao;
+
+import java.util.List;
+
+/*
+ * One page of a keyset-paginated query. Pass getLast() as the "after"
+ * argument of the next call to get the following page.
+ */
+public class Page<T> {
+
+	public static final int MAX_SIZE = 1000;
+
+	private List<T> content;
+	private boolean hasNext;
+	private Integer totalCount;
+
+	public Page(List<T> content, boolean hasNext, Integer totalCount) {
+		this.content = content;
+		this.hasNext = hasNext;
+		this.totalCount = totalCount;
+	}
+
+	public List<T> getContent() {
+		return content;
+	}
+
+	public boolean hasNext() {
+		return hasNext;
+	}
+
+	// null when the total was not requested
+	public Integer getTotalCount() {
+		return totalCount;
+	}
+
+	public T getLast() {
+		return content.isEmpty() ? null : content.get(content.size() - 1);
+	}
+
+	public static int checkSize(int pageSize) {
+		if (pageSize < 1 || pageSize > MAX_SIZE) {
+			throw new IllegalArgumentException("Page size must be between 1 and " + MAX_SIZE + ".");
+		}
+		return pageSize;
+	}
+
+	@Override
+	public String toString() {
+		return "Page [size=" + content.size() + ", hasNext=" + hasNext + ", totalCount=" + totalCount + "]";
+	}
+}
@@ -0,0 +1,211 @@
+package model.dao;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import model.entities.Seller;
+
+/*
+ * Filters for SellerDao.search. Every filter is optional (null or empty means
+ * "don't filter"); ranges are inclusive. Results are sorted by sortBy and
+ * then by Id; offset rows are skipped and at most limit rows are returned.
+ */
+public class SellerCriteria {
+
+	public enum Sort {
+		ID, NAME, EMAIL, BIRTH_DATE, BASE_SALARY
+	}
+
+	private String namePrefix;
+	private String emailDomain;
+	private Set<Integer> departmentIds = new LinkedHashSet<>();
+	private Double minBaseSalary;
+	private Double maxBaseSalary;
+	private Date minBirthDate;
+	private Date maxBirthDate;
+	private Sort sortBy = Sort.NAME;
+	private boolean descending;
+	private int limit = Page.MAX_SIZE;
+	private int offset;
+
+	public String getNamePrefix() {
+		return namePrefix;
+	}
+
+	public void setNamePrefix(String namePrefix) {
+		this.namePrefix = blankToNull(namePrefix);
+	}
+
+	// the part after '@', e.g. "gmail.com"
+	public String getEmailDomain() {
+		return emailDomain;
+	}
+
+	public void setEmailDomain(String emailDomain) {
+		emailDomain = blankToNull(emailDomain);
+		if (emailDomain != null && emailDomain.startsWith("@")) {
+			emailDomain = blankToNull(emailDomain.substring(1));
+		}
+		this.emailDomain = emailDomain;
+	}
+
+	public Set<Integer> getDepartmentIds() {
+		return Collections.unmodifiableSet(departmentIds);
+	}
+
+	public void setDepartmentIds(Collection<Integer> departmentIds) {
+		this.departmentIds = new LinkedHashSet<>();
+		if (departmentIds != null) {
+			for (Integer id : departmentIds) {
+				if (id != null) {
+					this.departmentIds.add(id);
+				}
+			}
+		}
+	}
+
+	public Double getMinBaseSalary() {
+		return minBaseSalary;
+	}
+
+	public void setMinBaseSalary(Double minBaseSalary) {
+		this.minBaseSalary = minBaseSalary;
+	}
+
+	public Double getMaxBaseSalary() {
+		return maxBaseSalary;
+	}
+
+	public void setMaxBaseSalary(Double maxBaseSalary) {
+		this.maxBaseSalary = maxBaseSalary;
+	}
+
+	public Date getMinBirthDate() {
+		return minBirthDate;
+	}
+
+	public void setMinBirthDate(Date minBirthDate) {
+		this.minBirthDate = minBirthDate;
+	}
+
+	public Date getMaxBirthDate() {
+		return maxBirthDate;
+	}
+
+	public void setMaxBirthDate(Date maxBirthDate) {
+		this.maxBirthDate = maxBirthDate;
+	}
+
+	public Sort getSortBy() {
+		return sortBy;
+	}
+
+	public void setSortBy(Sort sortBy) {
+		if (sortBy == null) {
+			throw new IllegalArgumentException("Sort was null.");
+		}
+		this.sortBy = sortBy;
+	}
+
+	public boolean isDescending() {
+		return descending;
+	}
+
+	public void setDescending(boolean descending) {
+		this.descending = descending;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public void setLimit(int limit) {
+		this.limit = Page.checkSize(limit);
+	}
+
+	public int getOffset() {
+		return offset;
+	}
+
+	// OFFSET reads and skips the rows before it: fine for screens of data, use
+	// SellerDao.findPage for walking a whole table
+	public void setOffset(int offset) {
+		if (offset < 0) {
+			throw new IllegalArgumentException("Offset must not be negative.");
+		}
+		this.offset = offset;
+	}
+
+	// Same filters and sort, another window of rows.
+	public SellerCriteria withWindow(int offset, int limit) {
+		SellerCriteria copy = new SellerCriteria();
+		copy.namePrefix = namePrefix;
+		copy.emailDomain = emailDomain;
+		copy.departmentIds = new LinkedHashSet<>(departmentIds);
+		copy.minBaseSalary = minBaseSalary;
+		copy.maxBaseSalary = maxBaseSalary;
+		copy.minBirthDate = minBirthDate;
+		copy.maxBirthDate = maxBirthDate;
+		copy.sortBy = sortBy;
+		copy.descending = descending;
+		copy.setLimit(limit);
+		copy.setOffset(offset);
+		return copy;
+	}
+
+	// true when no filter is set (sort and limit don't count)
+	public boolean isEmpty() {
+		return namePrefix == null && emailDomain == null && departmentIds.isEmpty() && minBaseSalary == null
+				&& maxBaseSalary == null && minBirthDate == null && maxBirthDate == null;
+	}
+
+	// True when after is the same seller as before and every column this
+	// criteria sorts or filters on is unchanged, so the row keeps its place and
+	// its match. A changed value may still sort the same, but only the
+	// database's collation can tell.
+	public boolean keepsPlace(Seller before, Seller after) {
+		if (!Objects.equals(before.getId(), after.getId())) {
+			return false;
+		}
+		if ((sortBy == Sort.NAME || namePrefix != null) && !Objects.equals(before.getName(), after.getName())) {
+			return false;
+		}
+		if ((sortBy == Sort.EMAIL || emailDomain != null) && !Objects.equals(before.getEmail(), after.getEmail())) {
+			return false;
+		}
+		if ((sortBy == Sort.BIRTH_DATE || minBirthDate != null || maxBirthDate != null)
+				&& !Objects.equals(time(before.getBirthDate()), time(after.getBirthDate()))) {
+			return false;
+		}
+		if ((sortBy == Sort.BASE_SALARY || minBaseSalary != null || maxBaseSalary != null)
+				&& !Objects.equals(before.getBaseSalary(), after.getBaseSalary())) {
+			return false;
+		}
+		return departmentIds.isEmpty() || Objects.equals(departmentId(before), departmentId(after));
+	}
+
+	// java.sql.Date from the database and java.util.Date from the form
+	private static Long time(Date date) {
+		return date == null ? null : date.getTime();
+	}
+
+	private static Integer departmentId(Seller obj) {
+		return obj.getDepartment() == null ? null : obj.getDepartment().getId();
+	}
+
+	private static String blankToNull(String s) {
+		return s == null || s.trim().isEmpty() ? null : s.trim();
+	}
+
+	@Override
+	public String toString() {
+		return "SellerCriteria [namePrefix=" + namePrefix + ", emailDomain=" + emailDomain + ", departmentIds="
+				+ departmentIds + ", baseSalary=" + minBaseSalary + ".." + maxBaseSalary + ", birthDate="
+				+ minBirthDate + ".." + maxBirthDate + ", sortBy=" + sortBy + (descending ? " DESC" : "")
+				+ ", limit=" + limit + ", offset=" + offset + "]";
+	}
+}
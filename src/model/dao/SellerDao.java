@@ -1,16 +1,31 @@
 package model.dao;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import model.entities.Department;
+import model.entities.DepartmentSalaryStats;
 import model.entities.Seller;
+import model.entities.SellerTable;
 
 public interface SellerDao {
 
 	void insert(Seller obj);
 	void update(Seller obj);
 	void deleteById(Integer id);
+	void insertAll(List<Seller> list);
+	void updateAll(List<Seller> list);
+	void deleteAllById(List<Integer> ids);
 	Seller findById(Integer id);
 	List<Seller> findAll();
+	void forEach(Consumer<? super Seller> action);
+	void forEachRow(Consumer<? super SellerRow> action);
+	SellerTable findAllAsTable();
 	List<Seller> findByDepartment(Department department);
+	Page<Seller> findPage(Seller after, int pageSize, boolean countTotal);
+	Page<Seller> findPageByDepartment(Department department, Seller after, int pageSize, boolean countTotal);
+	List<Seller> search(SellerCriteria criteria);
+	int count(SellerCriteria criteria);
+	List<DepartmentSalaryStats> findSalaryStatsByDepartment();
+	DepartmentSalaryStats findSalaryStats(Department department);
 }
@@ -0,0 +1,19 @@
+package model.dao;
+
+import model.entities.Department;
+
+/*
+ * The current row of SellerDao.forEachRow. The same object is reused for
+ * every row, so read what you need inside the callback and don't keep it.
+ */
+public interface SellerRow {
+
+	int getId();
+	String getName();
+	String getEmail();
+	// days since 1970-01-01, SellerTable.NO_DATE when there's no birth date
+	int getBirthEpochDay();
+	double getBaseSalary();
+	// shared by all the rows of the same department
+	Department getDepartment();
+}
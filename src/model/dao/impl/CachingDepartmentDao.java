@@ -0,0 +1,238 @@
+package model.dao.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import model.dao.DepartmentDao;
+import model.entities.Department;
+
+/*
+ * Read-through cache in front of another DepartmentDao. Keeps the sorted
+ * findAll() list and an id -> Department map for ttlMillis; any write through
+ * this DAO drops it and notifies the invalidation listeners. Callers always
+ * get copies, so they can't change what is cached. ttlMillis <= 0 turns the
+ * caching off but keeps the listeners.
+ */
+public class CachingDepartmentDao implements DepartmentDao {
+
+	private final DepartmentDao dao;
+	private final long ttlMillis;
+
+	private final ReentrantLock loadLock = new ReentrantLock();
+	private volatile Snapshot snapshot;
+	private final AtomicLong generation = new AtomicLong();
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong loads = new AtomicLong();
+	private final AtomicLong loadNanos = new AtomicLong();
+	private final AtomicLong invalidations = new AtomicLong();
+
+	private final List<Runnable> invalidationListeners = new CopyOnWriteArrayList<>();
+
+	public CachingDepartmentDao(DepartmentDao dao, long ttlMillis) {
+		this.dao = dao;
+		this.ttlMillis = ttlMillis;
+	}
+
+	@Override
+	public List<Department> findAll() {
+		if (ttlMillis <= 0) {
+			return dao.findAll();
+		}
+		return copies(getSnapshot().list);
+	}
+
+	// Copies of the cached list, or null when findAll() would have to query the database.
+	public List<Department> findAllIfCached() {
+		Snapshot current = snapshot;
+		if (ttlMillis <= 0 || current == null || current.isExpired()) {
+			return null;
+		}
+		hits.incrementAndGet();
+		return copies(current.list);
+	}
+
+	@Override
+	public Department findById(Integer id) {
+		if (ttlMillis <= 0) {
+			return dao.findById(id);
+		}
+		Department dep = getSnapshot().byId.get(id);
+		if (dep != null) {
+			return copy(dep);
+		}
+		// not in the snapshot: it may have been inserted by someone else
+		return dao.findById(id);
+	}
+
+	@Override
+	public void insert(Department obj) {
+		try {
+			dao.insert(obj);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public void update(Department obj) {
+		try {
+			dao.update(obj);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public void deleteById(Integer id) {
+		try {
+			dao.deleteById(id);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public void insertAll(List<Department> list) {
+		try {
+			dao.insertAll(list);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public void updateAll(List<Department> list) {
+		try {
+			dao.updateAll(list);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public void deleteAllById(List<Integer> ids) {
+		try {
+			dao.deleteAllById(ids);
+		} finally {
+			invalidate();
+		}
+	}
+
+	public void invalidate() {
+		generation.incrementAndGet();
+		snapshot = null;
+		invalidations.incrementAndGet();
+		for (Runnable listener : invalidationListeners) {
+			listener.run();
+		}
+	}
+
+	public void addInvalidationListener(Runnable listener) {
+		invalidationListeners.add(listener);
+	}
+
+	private Snapshot getSnapshot() {
+		Snapshot current = snapshot;
+		if (current != null && !current.isExpired()) {
+			hits.incrementAndGet();
+			return current;
+		}
+		loadLock.lock();
+		try {
+			current = snapshot;
+			if (current != null && !current.isExpired()) {
+				hits.incrementAndGet();
+				return current;
+			}
+			misses.incrementAndGet();
+			long gen = generation.get();
+			long start = System.nanoTime();
+			current = new Snapshot(dao.findAll(), System.currentTimeMillis() + ttlMillis);
+			loadNanos.addAndGet(System.nanoTime() - start);
+			loads.incrementAndGet();
+			// a write during the load makes this data stale: use it once, don't keep it
+			if (generation.get() == gen) {
+				snapshot = current;
+			}
+			return current;
+		} finally {
+			loadLock.unlock();
+		}
+	}
+
+	private static List<Department> copies(List<Department> cached) {
+		List<Department> list = new ArrayList<>(cached.size());
+		for (Department dep : cached) {
+			list.add(copy(dep));
+		}
+		return list;
+	}
+
+	private static Department copy(Department dep) {
+		return new Department(dep.getId(), dep.getName());
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	public double getHitRatio() {
+		long h = hits.get();
+		long total = h + misses.get();
+		return total == 0 ? 0.0 : (double) h / total;
+	}
+
+	public long getLoadCount() {
+		return loads.get();
+	}
+
+	public double getAverageLoadMillis() {
+		long count = loads.get();
+		return count == 0 ? 0.0 : loadNanos.get() / (count * 1_000_000.0);
+	}
+
+	public long getInvalidationCount() {
+		return invalidations.get();
+	}
+
+	public String getStats() {
+		if (ttlMillis <= 0) {
+			return "DepartmentCache [disabled]";
+		}
+		return "DepartmentCache [hits=" + getHitCount() + ", misses=" + getMissCount() + ", hitRatio="
+				+ String.format("%.2f", getHitRatio()) + ", loads=" + getLoadCount() + ", avgLoadMs="
+				+ String.format("%.3f", getAverageLoadMillis()) + ", invalidations=" + getInvalidationCount() + "]";
+	}
+
+	private static class Snapshot {
+
+		private final List<Department> list;
+		private final Map<Integer, Department> byId;
+		private final long expiresAt;
+
+		Snapshot(List<Department> list, long expiresAt) {
+			this.list = Collections.unmodifiableList(list);
+			this.byId = new HashMap<>();
+			for (Department dep : list) {
+				byId.put(dep.getId(), dep);
+			}
+			this.expiresAt = expiresAt;
+		}
+
+		boolean isExpired() {
+			return System.currentTimeMillis() >= expiresAt;
+		}
+	}
+}
@@ -0,0 +1,304 @@
+package model.dao.impl;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import model.dao.Page;
+import model.dao.SellerCriteria;
+import model.dao.SellerDao;
+import model.dao.SellerRow;
+import model.entities.Department;
+import model.entities.DepartmentSalaryStats;
+import model.entities.Seller;
+import model.entities.SellerTable;
+
+/*
+ * LRU cache of sellers by id in front of another SellerDao, bounded both by
+ * entry count and by an estimate of the bytes held. Only findById reads from
+ * it; writes through this DAO update or evict the entry. Cached objects are
+ * never handed out: callers get copies.
+ */
+public class CachingSellerDao implements SellerDao {
+
+	// object headers, boxed fields, Date, Department and the map entry itself
+	private static final int ENTRY_OVERHEAD_BYTES = 240;
+
+	private final SellerDao dao;
+	private final int maxEntries;
+	private final long maxBytes;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final LinkedHashMap<Integer, Entry> cache = new LinkedHashMap<>(16, 0.75f, true);
+	private long bytes;
+	// bumped by every write, so a findById that raced with one doesn't cache old data
+	private long writes;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	public CachingSellerDao(SellerDao dao, int maxEntries, long maxBytes) {
+		this.dao = dao;
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+	}
+
+	@Override
+	public Seller findById(Integer id) {
+		long stamp;
+		lock.lock();
+		try {
+			Entry entry = cache.get(id);
+			if (entry != null) {
+				hits.incrementAndGet();
+				return copy(entry.seller);
+			}
+			stamp = writes;
+		} finally {
+			lock.unlock();
+		}
+		misses.incrementAndGet();
+		Seller obj = dao.findById(id);
+		if (obj != null) {
+			put(obj, stamp);
+		}
+		return obj;
+	}
+
+	@Override
+	public void insert(Seller obj) {
+		dao.insert(obj);
+		put(obj, -1);
+	}
+
+	@Override
+	public void update(Seller obj) {
+		try {
+			dao.update(obj);
+		} catch (RuntimeException e) {
+			evict(obj.getId());
+			throw e;
+		}
+		put(obj, -1);
+	}
+
+	@Override
+	public void deleteById(Integer id) {
+		try {
+			dao.deleteById(id);
+		} finally {
+			evict(id);
+		}
+	}
+
+	@Override
+	public void insertAll(List<Seller> list) {
+		dao.insertAll(list);
+	}
+
+	@Override
+	public void updateAll(List<Seller> list) {
+		try {
+			dao.updateAll(list);
+		} finally {
+			for (Seller obj : list) {
+				evict(obj.getId());
+			}
+		}
+	}
+
+	@Override
+	public void deleteAllById(List<Integer> ids) {
+		try {
+			dao.deleteAllById(ids);
+		} finally {
+			for (Integer id : ids) {
+				evict(id);
+			}
+		}
+	}
+
+	@Override
+	public List<Seller> findAll() {
+		return dao.findAll();
+	}
+
+	@Override
+	public void forEach(Consumer<? super Seller> action) {
+		dao.forEach(action);
+	}
+
+	@Override
+	public void forEachRow(Consumer<? super SellerRow> action) {
+		dao.forEachRow(action);
+	}
+
+	@Override
+	public SellerTable findAllAsTable() {
+		return dao.findAllAsTable();
+	}
+
+	@Override
+	public List<Seller> findByDepartment(Department department) {
+		return dao.findByDepartment(department);
+	}
+
+	@Override
+	public Page<Seller> findPage(Seller after, int pageSize, boolean countTotal) {
+		return dao.findPage(after, pageSize, countTotal);
+	}
+
+	@Override
+	public Page<Seller> findPageByDepartment(Department department, Seller after, int pageSize, boolean countTotal) {
+		return dao.findPageByDepartment(department, after, pageSize, countTotal);
+	}
+
+	@Override
+	public List<Seller> search(SellerCriteria criteria) {
+		return dao.search(criteria);
+	}
+
+	@Override
+	public int count(SellerCriteria criteria) {
+		return dao.count(criteria);
+	}
+
+	@Override
+	public List<DepartmentSalaryStats> findSalaryStatsByDepartment() {
+		return dao.findSalaryStatsByDepartment();
+	}
+
+	@Override
+	public DepartmentSalaryStats findSalaryStats(Department department) {
+		return dao.findSalaryStats(department);
+	}
+
+	// Called when departments change, since every cached seller carries its department name.
+	public void clear() {
+		lock.lock();
+		try {
+			cache.clear();
+			bytes = 0;
+			writes++;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// expectedWrites = -1 for writes, otherwise the stamp taken before the read
+	private void put(Seller obj, long expectedWrites) {
+		if (obj.getId() == null) {
+			return;
+		}
+		Entry entry = new Entry(copy(obj));
+		lock.lock();
+		try {
+			if (expectedWrites < 0) {
+				writes++;
+			} else if (expectedWrites != writes) {
+				return;
+			}
+			Entry old = cache.put(obj.getId(), entry);
+			if (old != null) {
+				bytes -= old.bytes;
+			}
+			bytes += entry.bytes;
+			Iterator<Map.Entry<Integer, Entry>> it = cache.entrySet().iterator();
+			while ((cache.size() > maxEntries || bytes > maxBytes) && it.hasNext()) {
+				Entry eldest = it.next().getValue();
+				it.remove();
+				bytes -= eldest.bytes;
+				evictions.incrementAndGet();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void evict(Integer id) {
+		if (id == null) {
+			return;
+		}
+		lock.lock();
+		try {
+			writes++;
+			Entry old = cache.remove(id);
+			if (old != null) {
+				bytes -= old.bytes;
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static Seller copy(Seller obj) {
+		Department dep = obj.getDepartment();
+		return new Seller(obj.getId(), obj.getName(), obj.getEmail(),
+				obj.getBirthDate() == null ? null : new Date(obj.getBirthDate().getTime()), obj.getBaseSalary(),
+				dep == null ? null : new Department(dep.getId(), dep.getName()));
+	}
+
+	public int getSize() {
+		lock.lock();
+		try {
+			return cache.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public long getEstimatedBytes() {
+		lock.lock();
+		try {
+			return bytes;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	public double getHitRatio() {
+		long h = hits.get();
+		long total = h + misses.get();
+		return total == 0 ? 0.0 : (double) h / total;
+	}
+
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	public String getStats() {
+		return "SellerCache [size=" + getSize() + ", estimatedKB=" + getEstimatedBytes() / 1024 + ", hits="
+				+ getHitCount() + ", misses=" + getMissCount() + ", hitRatio=" + String.format("%.2f", getHitRatio())
+				+ ", evictions=" + getEvictionCount() + "]";
+	}
+
+	private static class Entry {
+
+		private final Seller seller;
+		private final long bytes;
+
+		Entry(Seller seller) {
+			this.seller = seller;
+			this.bytes = ENTRY_OVERHEAD_BYTES + 2L * (length(seller.getName()) + length(seller.getEmail())
+					+ (seller.getDepartment() == null ? 0 : length(seller.getDepartment().getName())));
+		}
+
+		private static int length(String s) {
+			return s == null ? 0 : s.length();
+		}
+	}
+}
@@ -16,17 +16,13 @@ import model.entities.Department;
 
 public class DepartmentDaoJDBC implements DepartmentDao {
 
-	private Connection conn;
-	
-	public DepartmentDaoJDBC(Connection conn) {
-		this.conn = conn;
-	}
-	
 	@Override
 	public Department findById(Integer id) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 		try {
+			conn = DB.getConnection();
 			st = conn.prepareStatement(
 				"SELECT * FROM department WHERE Id = ?");
 			st.setInt(1, id);
@@ -45,14 +41,17 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 		finally {
 			DB.closeStatement(st);
 			DB.closeResultSet(rs);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public List<Department> findAll() {
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 		try {
+			conn = DB.getConnection();
 			st = conn.prepareStatement(
 				"SELECT * FROM department ORDER BY Name");
 			rs = st.executeQuery();
@@ -73,13 +72,16 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 		finally {
 			DB.closeStatement(st);
 			DB.closeResultSet(rs);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public void insert(Department obj) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		try {
+			conn = DB.getConnection();
 			st = conn.prepareStatement(
 				"INSERT INTO department " +
 				"(Name) " +
@@ -107,13 +109,16 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 		} 
 		finally {
 			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public void update(Department obj) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		try {
+			conn = DB.getConnection();
 			st = conn.prepareStatement(
 				"UPDATE department " +
 				"SET Name = ? " +
@@ -129,13 +134,16 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 		} 
 		finally {
 			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public void deleteById(Integer id) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		try {
+			conn = DB.getConnection();
 			st = conn.prepareStatement(
 				"DELETE FROM department WHERE Id = ?");
 
@@ -148,6 +156,37 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 		} 
 		finally {
 			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 	}
+
+	@Override
+	public void insertAll(List<Department> list) {
+		new JdbcBatch<Department>(
+			"INSERT INTO department " +
+			"(Name) " +
+			"VALUES " +
+			"(?)",
+			(st, obj) -> st.setString(1, obj.getName()),
+			(obj, id) -> obj.setId(id)).execute(list);
+	}
+
+	@Override
+	public void updateAll(List<Department> list) {
+		new JdbcBatch<Department>(
+			"UPDATE department " +
+			"SET Name = ? " +
+			"WHERE Id = ?",
+			(st, obj) -> {
+				st.setString(1, obj.getName());
+				st.setInt(2, obj.getId());
+			}).execute(list);
+	}
+
+	@Override
+	public void deleteAllById(List<Integer> ids) {
+		new JdbcBatch<Integer>(
+			"DELETE FROM department WHERE Id = ?",
+			(st, id) -> st.setInt(1, id)).execute(ids);
+	}
 }
@@ -0,0 +1,90 @@
+package model.dao.impl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+import model.dao.Page;
+import model.dao.metrics.DaoMetrics;
+import model.dao.metrics.MethodMetrics;
+import model.entities.SellerTable;
+
+/*
+ * Decorator that times every call of a DAO interface and counts calls,
+ * errors and rows returned into DaoMetrics. Rows are the size of a returned
+ * list, page or table, 1 for any other non-null result, and the number of
+ * rows handed to the Consumer of forEach/forEachRow.
+ */
+public class InstrumentedDao implements InvocationHandler {
+
+	private final Object target;
+	private final DaoMetrics metrics;
+
+	private InstrumentedDao(Object target, DaoMetrics metrics) {
+		this.target = target;
+		this.metrics = metrics;
+	}
+
+	public static <T> T wrap(Class<T> type, T target, String name) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+				new InstrumentedDao(target, DaoMetrics.register(name, type))));
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		MethodMetrics m = metrics.get(method.getName());
+		if (m == null) {
+			return call(method, args);
+		}
+		long[] consumed = null;
+		if (args != null && args.length == 1 && args[0] instanceof Consumer) {
+			consumed = new long[1];
+			args = new Object[] { counting(args[0], consumed) };
+		}
+		long start = System.nanoTime();
+		try {
+			Object result = call(method, args);
+			m.success(start, consumed != null ? consumed[0] : rows(result));
+			return result;
+		} catch (Throwable e) {
+			m.failure(start);
+			throw e;
+		}
+	}
+
+	private Object call(Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Consumer<Object> counting(Object action, long[] consumed) {
+		Consumer<Object> consumer = (Consumer<Object>) action;
+		return row -> {
+			consumed[0]++;
+			consumer.accept(row);
+		};
+	}
+
+	private static long rows(Object result) {
+		if (result == null) {
+			return 0;
+		}
+		if (result instanceof Collection) {
+			return ((Collection<?>) result).size();
+		}
+		if (result instanceof Page) {
+			return ((Page<?>) result).getContent().size();
+		}
+		if (result instanceof SellerTable) {
+			return ((SellerTable) result).size();
+		}
+		return 1;
+	}
+}
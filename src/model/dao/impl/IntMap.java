@@ -0,0 +1,84 @@
+package model.dao.impl;
+
+import java.util.Arrays;
+
+/*
+ * Minimal open-addressing map with primitive int keys, so looking a value up
+ * by id per row doesn't box the key.
+ */
+class IntMap<V> {
+
+	private int[] keys;
+	private Object[] values;
+	private int size;
+
+	IntMap() {
+		this(16);
+	}
+
+	IntMap(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(expectedSize, 4) * 2 - 1) << 1;
+		keys = new int[capacity];
+		values = new Object[capacity];
+	}
+
+	@SuppressWarnings("unchecked")
+	V get(int key) {
+		int mask = keys.length - 1;
+		for (int i = mix(key) & mask;; i = (i + 1) & mask) {
+			Object value = values[i];
+			if (value == null) {
+				return null;
+			}
+			if (keys[i] == key) {
+				return (V) value;
+			}
+		}
+	}
+
+	// values must not be null
+	void put(int key, V value) {
+		int mask = keys.length - 1;
+		int i = mix(key) & mask;
+		while (values[i] != null) {
+			if (keys[i] == key) {
+				values[i] = value;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = value;
+		if (++size * 2 > keys.length) {
+			grow();
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+	void clear() {
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void grow() {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new int[oldKeys.length * 2];
+		values = new Object[oldValues.length * 2];
+		size = 0;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] != null) {
+				put(oldKeys[i], (V) oldValues[i]);
+			}
+		}
+	}
+
+	private static int mix(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
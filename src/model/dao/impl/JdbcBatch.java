@@ -0,0 +1,138 @@
+package model.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import db.DB;
+import db.DBBatchException;
+import db.DBException;
+
+/*
+ * Runs one statement over a list of rows with JDBC batching. Each chunk of
+ * DB.getBatchSize() rows is sent with executeBatch() and committed on its
+ * own; if a chunk fails it is rolled back and replayed row by row so the
+ * good rows are kept and every bad row is reported in a DBBatchException.
+ */
+class JdbcBatch<T> {
+
+	interface Binder<T> {
+		void bind(PreparedStatement st, T obj) throws SQLException;
+	}
+
+	interface KeySetter<T> {
+		void setKey(T obj, int key);
+	}
+
+	private final String sql;
+	private final Binder<T> binder;
+	private final KeySetter<T> keySetter;
+	private final int chunkSize;
+
+	JdbcBatch(String sql, Binder<T> binder) {
+		this(sql, binder, null);
+	}
+
+	JdbcBatch(String sql, Binder<T> binder, KeySetter<T> keySetter) {
+		this.sql = sql;
+		this.binder = binder;
+		this.keySetter = keySetter;
+		this.chunkSize = DB.getBatchSize();
+	}
+
+	void execute(List<T> list) {
+		if (list == null || list.isEmpty()) {
+			return;
+		}
+		DBBatchException exception = new DBBatchException("Some rows could not be saved.");
+		Connection conn = null;
+		PreparedStatement st = null;
+		try {
+			conn = DB.getConnection();
+			conn.setAutoCommit(false);
+			st = conn.prepareStatement(sql,
+					keySetter != null ? Statement.RETURN_GENERATED_KEYS : Statement.NO_GENERATED_KEYS);
+
+			for (int from = 0; from < list.size(); from += chunkSize) {
+				int to = Math.min(from + chunkSize, list.size());
+				executeChunk(conn, st, list, from, to, exception);
+			}
+		}
+		catch (SQLException e) {
+			throw new DBException(e.getMessage());
+		}
+		finally {
+			DB.closeStatement(st);
+			DB.closeConnection(conn);
+		}
+		if (exception.getErrors().size() > 0) {
+			throw exception;
+		}
+	}
+
+	private void executeChunk(Connection conn, PreparedStatement st, List<T> list, int from, int to,
+			DBBatchException exception) throws SQLException {
+		List<Integer> batched = new ArrayList<>(to - from);
+		try {
+			for (int i = from; i < to; i++) {
+				try {
+					binder.bind(st, list.get(i));
+				} catch (RuntimeException e) {
+					exception.addError(i, "Invalid row: " + e);
+					continue;
+				}
+				st.addBatch();
+				batched.add(i);
+			}
+			if (batched.isEmpty()) {
+				return;
+			}
+			st.executeBatch();
+			if (keySetter != null) {
+				readGeneratedKeys(st, list, batched);
+			}
+			conn.commit();
+		}
+		catch (SQLException e) {
+			conn.rollback();
+			st.clearBatch();
+			executeOneByOne(conn, st, list, batched, exception);
+		}
+	}
+
+	private void executeOneByOne(Connection conn, PreparedStatement st, List<T> list, List<Integer> indexes,
+			DBBatchException exception) throws SQLException {
+		for (Integer i : indexes) {
+			try {
+				binder.bind(st, list.get(i));
+				st.executeUpdate();
+				if (keySetter != null) {
+					readGeneratedKeys(st, list, List.of(i));
+				}
+				conn.commit();
+			}
+			catch (SQLException e) {
+				conn.rollback();
+				exception.addError(i, e.getMessage());
+			}
+		}
+	}
+
+	private void readGeneratedKeys(PreparedStatement st, List<T> list, List<Integer> indexes) throws SQLException {
+		ResultSet rs = null;
+		try {
+			rs = st.getGeneratedKeys();
+			int n = 0;
+			while (rs.next() && n < indexes.size()) {
+				keySetter.setKey(list.get(indexes.get(n++)), rs.getInt(1));
+			}
+		}
+		finally {
+			DB.closeResultSet(rs);
+		}
+	}
+}
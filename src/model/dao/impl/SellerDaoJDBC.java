@@ -5,30 +5,30 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 
 import com.mysql.jdbc.Statement;
 
 import db.DB;
 import db.DBException;
+import model.dao.Page;
+import model.dao.SellerCriteria;
 import model.dao.SellerDao;
+import model.dao.SellerRow;
 import model.entities.Department;
+import model.entities.DepartmentSalaryStats;
 import model.entities.Seller;
+import model.entities.SellerTable;
 
 public class SellerDaoJDBC implements SellerDao {
 
-	private Connection conn;
-	
-	public SellerDaoJDBC(Connection conn) {
-		this.conn = conn;
-	}
-	
 	@Override
 	public void insert(Seller obj) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		try {
+			conn = DB.getConnection();
 			st = conn.prepareStatement(
 					"INSERT INTO seller "
 					+ "(Name, Email, BirthDate, BaseSalary, DepartmentId) "
@@ -61,13 +61,16 @@ public class SellerDaoJDBC implements SellerDao {
 		}
 		finally {
 			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public void update(Seller obj) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		try {
+			conn = DB.getConnection();
 			st = conn.prepareStatement(
 					"UPDATE seller "
 					+ "SET Name = ?, Email = ?, BirthDate = ?, BaseSalary = ?, DepartmentId = ? "
@@ -87,13 +90,16 @@ public class SellerDaoJDBC implements SellerDao {
 		}
 		finally {
 			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public void deleteById(Integer id) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		try {
+			conn = DB.getConnection();
 			st = conn.prepareStatement("DELETE FROM seller WHERE Id = ?");
 			
 			st.setInt(1, id);
@@ -105,14 +111,57 @@ public class SellerDaoJDBC implements SellerDao {
 		}
 		finally {
 			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 	}
 
+	@Override
+	public void insertAll(List<Seller> list) {
+		new JdbcBatch<Seller>(
+				"INSERT INTO seller "
+				+ "(Name, Email, BirthDate, BaseSalary, DepartmentId) "
+				+ "VALUES "
+				+ "(?, ?, ?, ?, ?)",
+				(st, obj) -> {
+					st.setString(1, obj.getName());
+					st.setString(2, obj.getEmail());
+					st.setDate(3, new java.sql.Date(obj.getBirthDate().getTime()));
+					st.setDouble(4, obj.getBaseSalary());
+					st.setInt(5, obj.getDepartment().getId());
+				},
+				(obj, id) -> obj.setId(id)).execute(list);
+	}
+
+	@Override
+	public void updateAll(List<Seller> list) {
+		new JdbcBatch<Seller>(
+				"UPDATE seller "
+				+ "SET Name = ?, Email = ?, BirthDate = ?, BaseSalary = ?, DepartmentId = ? "
+				+ "WHERE Id = ?",
+				(st, obj) -> {
+					st.setString(1, obj.getName());
+					st.setString(2, obj.getEmail());
+					st.setDate(3, new java.sql.Date(obj.getBirthDate().getTime()));
+					st.setDouble(4, obj.getBaseSalary());
+					st.setInt(5, obj.getDepartment().getId());
+					st.setInt(6, obj.getId());
+				}).execute(list);
+	}
+
+	@Override
+	public void deleteAllById(List<Integer> ids) {
+		new JdbcBatch<Integer>(
+				"DELETE FROM seller WHERE Id = ?",
+				(st, id) -> st.setInt(1, id)).execute(ids);
+	}
+
 	@Override
 	public Seller findById(Integer id) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 		try {
+			conn = DB.getConnection();
 			st = conn.prepareStatement(
 					"SELECT seller.*,department.Name as DepName "
 					+ "FROM seller INNER JOIN department "
@@ -122,9 +171,7 @@ public class SellerDaoJDBC implements SellerDao {
 			st.setInt(1, id);
 			rs = st.executeQuery();
 			if (rs.next()) {
-				Department dep = instantiateDepartment(rs);
-				Seller obj = instantiateSeller(rs, dep);
-				return obj;
+				return new SellerRowMapper(rs).map(rs);
 			}
 			return null;
 		}
@@ -134,32 +181,17 @@ public class SellerDaoJDBC implements SellerDao {
 		finally {
 			DB.closeStatement(st);
 			DB.closeResultSet(rs);
+			DB.closeConnection(conn);
 		}
 	}
 
-	private Seller instantiateSeller(ResultSet rs, Department dep) throws SQLException {
-		Seller obj = new Seller();
-		obj.setId(rs.getInt("Id"));
-		obj.setName(rs.getString("Name"));
-		obj.setEmail(rs.getString("Email"));
-		obj.setBaseSalary(rs.getDouble("BaseSalary"));
-		obj.setBirthDate(new java.util.Date(rs.getTimestamp("BirthDate").getTime()));
-		obj.setDepartment(dep);
-		return obj;
-	}
-
-	private Department instantiateDepartment(ResultSet rs) throws SQLException {
-		Department dep = new Department();
-		dep.setId(rs.getInt("DepartmentId"));
-		dep.setName(rs.getString("DepName"));
-		return dep;
-	}
-
 	@Override
 	public List<Seller> findAll() {
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 		try {
+			conn = DB.getConnection();
 			st = conn.prepareStatement(
 					"SELECT seller.*,department.Name as DepName "
 					+ "FROM seller INNER JOIN department "
@@ -169,19 +201,10 @@ public class SellerDaoJDBC implements SellerDao {
 			rs = st.executeQuery();
 			
 			List<Seller> list = new ArrayList<>();
-			Map<Integer, Department> map = new HashMap<>();
+			SellerRowMapper mapper = new SellerRowMapper(rs);
 			
 			while (rs.next()) {
-				
-				Department dep = map.get(rs.getInt("DepartmentId"));
-				
-				if (dep == null) {
-					dep = instantiateDepartment(rs);
-					map.put(rs.getInt("DepartmentId"), dep);
-				}
-				
-				Seller obj = instantiateSeller(rs, dep);
-				list.add(obj);
+				list.add(mapper.map(rs));
 			}
 			return list;
 		}
@@ -191,14 +214,122 @@ public class SellerDaoJDBC implements SellerDao {
 		finally {
 			DB.closeStatement(st);
 			DB.closeResultSet(rs);
+			DB.closeConnection(conn);
+		}
+	}
+
+	// Streams the rows one at a time (MySQL streaming fetch) instead of
+	// building a list, so memory doesn't depend on the size of the table.
+	@Override
+	public void forEach(Consumer<? super Seller> action) {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			conn = DB.getConnection();
+			st = conn.prepareStatement(
+					"SELECT seller.*,department.Name as DepName "
+					+ "FROM seller INNER JOIN department "
+					+ "ON seller.DepartmentId = department.Id "
+					+ "ORDER BY Name",
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			st.setFetchSize(Integer.MIN_VALUE);
+			
+			rs = st.executeQuery();
+			
+			SellerRowMapper mapper = new SellerRowMapper(rs);
+			
+			while (rs.next()) {
+				action.accept(mapper.map(rs));
+			}
+		}
+		catch (SQLException e) {
+			throw new DBException(e.getMessage());
+		}
+		finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+			DB.closeConnection(conn);
+		}
+	}
+	
+	// Like forEach, but without a Seller per row: the mapper refills one
+	// SellerRow. In Id order, for exports.
+	@Override
+	public void forEachRow(Consumer<? super SellerRow> action) {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			conn = DB.getConnection();
+			st = conn.prepareStatement(
+					"SELECT seller.*,department.Name as DepName "
+					+ "FROM seller INNER JOIN department "
+					+ "ON seller.DepartmentId = department.Id "
+					+ "ORDER BY seller.Id",
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			st.setFetchSize(Integer.MIN_VALUE);
+			
+			rs = st.executeQuery();
+			
+			SellerRowMapper mapper = new SellerRowMapper(rs);
+			
+			while (rs.next()) {
+				action.accept(mapper.read(rs));
+			}
+		}
+		catch (SQLException e) {
+			throw new DBException(e.getMessage());
+		}
+		finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public SellerTable findAllAsTable() {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			conn = DB.getConnection();
+			st = conn.prepareStatement(
+					"SELECT seller.*,department.Name as DepName "
+					+ "FROM seller INNER JOIN department "
+					+ "ON seller.DepartmentId = department.Id "
+					+ "ORDER BY Name",
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			st.setFetchSize(Integer.MIN_VALUE);
+			
+			rs = st.executeQuery();
+			
+			SellerRowMapper mapper = new SellerRowMapper(rs);
+			SellerTable.Builder table = new SellerTable.Builder();
+			
+			while (rs.next()) {
+				mapper.appendTo(rs, table);
+			}
+			return table.build();
+		}
+		catch (SQLException e) {
+			throw new DBException(e.getMessage());
+		}
+		finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public List<Seller> findByDepartment(Department department) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 		try {
+			conn = DB.getConnection();
 			st = conn.prepareStatement(
 					"SELECT seller.*,department.Name as DepName "
 					+ "FROM seller INNER JOIN department "
@@ -211,28 +342,319 @@ public class SellerDaoJDBC implements SellerDao {
 			rs = st.executeQuery();
 			
 			List<Seller> list = new ArrayList<>();
-			Map<Integer, Department> map = new HashMap<>();
+			SellerRowMapper mapper = new SellerRowMapper(rs);
 			
 			while (rs.next()) {
-				
-				Department dep = map.get(rs.getInt("DepartmentId"));
-				
-				if (dep == null) {
-					dep = instantiateDepartment(rs);
-					map.put(rs.getInt("DepartmentId"), dep);
-				}
-				
-				Seller obj = instantiateSeller(rs, dep);
-				list.add(obj);
+				list.add(mapper.map(rs));
 			}
 			return list;
 		}
 		catch (SQLException e) {
 			throw new DBException(e.getMessage());
 		}
+		finally {
+			DB.closeStatement(st);
+			DB.closeResultSet(rs);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public Page<Seller> findPage(Seller after, int pageSize, boolean countTotal) {
+		return findPage(null, after, pageSize, countTotal);
+	}
+
+	@Override
+	public Page<Seller> findPageByDepartment(Department department, Seller after, int pageSize, boolean countTotal) {
+		return findPage(department.getId(), after, pageSize, countTotal);
+	}
+
+	// Seek pagination on (Name, Id): the page starts right after the "after"
+	// seller, so the cost doesn't grow with the page number like OFFSET does.
+	private Page<Seller> findPage(Integer departmentId, Seller after, int pageSize, boolean countTotal) {
+		Page.checkSize(pageSize);
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			conn = DB.getConnection();
+			st = conn.prepareStatement(
+					"SELECT seller.*,department.Name as DepName "
+					+ "FROM seller INNER JOIN department "
+					+ "ON seller.DepartmentId = department.Id "
+					+ "WHERE 1 = 1 "
+					+ (departmentId != null ? "AND seller.DepartmentId = ? " : "")
+					+ (after != null ? "AND (seller.Name > ? OR (seller.Name = ? AND seller.Id > ?)) " : "")
+					+ "ORDER BY seller.Name, seller.Id "
+					+ "LIMIT ?");
+			
+			int p = 1;
+			if (departmentId != null) {
+				st.setInt(p++, departmentId);
+			}
+			if (after != null) {
+				st.setString(p++, after.getName());
+				st.setString(p++, after.getName());
+				st.setInt(p++, after.getId());
+			}
+			st.setInt(p, pageSize + 1);
+			
+			rs = st.executeQuery();
+			
+			List<Seller> list = new ArrayList<>();
+			SellerRowMapper mapper = new SellerRowMapper(rs);
+			
+			while (rs.next()) {
+				list.add(mapper.map(rs));
+			}
+			
+			boolean hasNext = list.size() > pageSize;
+			if (hasNext) {
+				list.remove(pageSize);
+			}
+			Integer totalCount = countTotal ? count(conn, departmentId) : null;
+			return new Page<>(list, hasNext, totalCount);
+		}
+		catch (SQLException e) {
+			throw new DBException(e.getMessage());
+		}
+		finally {
+			DB.closeStatement(st);
+			DB.closeResultSet(rs);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public List<Seller> search(SellerCriteria criteria) {
+		StringBuilder sql = new StringBuilder(
+				"SELECT seller.*,department.Name as DepName "
+				+ "FROM seller INNER JOIN department "
+				+ "ON seller.DepartmentId = department.Id ");
+		List<Object> params = new ArrayList<>();
+		appendFilters(criteria, sql, params);
+		String direction = criteria.isDescending() ? " DESC" : "";
+		sql.append("ORDER BY ").append(sortColumn(criteria.getSortBy())).append(direction);
+		if (criteria.getSortBy() != SellerCriteria.Sort.ID) {
+			sql.append(", seller.Id").append(direction);
+		}
+		sql.append(" LIMIT ? OFFSET ?");
+		params.add(criteria.getLimit());
+		params.add(criteria.getOffset());
+		
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			conn = DB.getConnection();
+			st = conn.prepareStatement(sql.toString());
+			for (int i = 0; i < params.size(); i++) {
+				st.setObject(i + 1, params.get(i));
+			}
+			
+			rs = st.executeQuery();
+			
+			List<Seller> list = new ArrayList<>();
+			SellerRowMapper mapper = new SellerRowMapper(rs);
+			
+			while (rs.next()) {
+				list.add(mapper.map(rs));
+			}
+			return list;
+		}
+		catch (SQLException e) {
+			throw new DBException(e.getMessage());
+		}
+		finally {
+			DB.closeStatement(st);
+			DB.closeResultSet(rs);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public int count(SellerCriteria criteria) {
+		StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM seller ");
+		List<Object> params = new ArrayList<>();
+		appendFilters(criteria, sql, params);
+		
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			conn = DB.getConnection();
+			st = conn.prepareStatement(sql.toString());
+			for (int i = 0; i < params.size(); i++) {
+				st.setObject(i + 1, params.get(i));
+			}
+			rs = st.executeQuery();
+			rs.next();
+			return rs.getInt(1);
+		}
+		catch (SQLException e) {
+			throw new DBException(e.getMessage());
+		}
+		finally {
+			DB.closeStatement(st);
+			DB.closeResultSet(rs);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public List<DepartmentSalaryStats> findSalaryStatsByDepartment() {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			conn = DB.getConnection();
+			st = conn.prepareStatement(
+					SALARY_STATS_SQL
+					+ "GROUP BY department.Id, department.Name "
+					+ "ORDER BY department.Name");
+			
+			rs = st.executeQuery();
+			
+			List<DepartmentSalaryStats> list = new ArrayList<>();
+			while (rs.next()) {
+				list.add(instantiateSalaryStats(rs));
+			}
+			return list;
+		}
+		catch (SQLException e) {
+			throw new DBException(e.getMessage());
+		}
+		finally {
+			DB.closeStatement(st);
+			DB.closeResultSet(rs);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public DepartmentSalaryStats findSalaryStats(Department department) {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			conn = DB.getConnection();
+			st = conn.prepareStatement(
+					SALARY_STATS_SQL
+					+ "WHERE department.Id = ? "
+					+ "GROUP BY department.Id, department.Name");
+			
+			st.setInt(1, department.getId());
+			rs = st.executeQuery();
+			
+			if (rs.next()) {
+				return instantiateSalaryStats(rs);
+			}
+			return null;
+		}
+		catch (SQLException e) {
+			throw new DBException(e.getMessage());
+		}
+		finally {
+			DB.closeStatement(st);
+			DB.closeResultSet(rs);
+			DB.closeConnection(conn);
+		}
+	}
+
+	// LEFT JOIN so departments without sellers are listed too
+	private static final String SALARY_STATS_SQL =
+			"SELECT department.Id, department.Name, COUNT(seller.Id) AS SellerCount, "
+			+ "COALESCE(SUM(seller.BaseSalary), 0) AS Total, "
+			+ "MIN(seller.BaseSalary) AS MinSalary, MAX(seller.BaseSalary) AS MaxSalary "
+			+ "FROM department LEFT JOIN seller "
+			+ "ON seller.DepartmentId = department.Id ";
+
+	private DepartmentSalaryStats instantiateSalaryStats(ResultSet rs) throws SQLException {
+		Department dep = new Department(rs.getInt("Id"), rs.getString("Name"));
+		double min = rs.getDouble("MinSalary");
+		boolean empty = rs.wasNull();
+		double max = rs.getDouble("MaxSalary");
+		return new DepartmentSalaryStats(dep, rs.getInt("SellerCount"), rs.getDouble("Total"),
+				empty ? null : min, empty ? null : max);
+	}
+
+	// WHERE clause shared by search and count; only uses seller columns
+	private static void appendFilters(SellerCriteria criteria, StringBuilder sql, List<Object> params) {
+		sql.append("WHERE 1 = 1 ");
+		if (criteria.getNamePrefix() != null) {
+			sql.append("AND seller.Name LIKE ? ");
+			params.add(escapeLike(criteria.getNamePrefix()) + "%");
+		}
+		if (criteria.getEmailDomain() != null) {
+			// matches the idx_seller_email_domain functional index
+			sql.append("AND SUBSTRING_INDEX(seller.Email, '@', -1) = ? ");
+			params.add(criteria.getEmailDomain());
+		}
+		if (!criteria.getDepartmentIds().isEmpty()) {
+			sql.append("AND seller.DepartmentId IN (");
+			String separator = "";
+			for (Integer id : criteria.getDepartmentIds()) {
+				sql.append(separator).append("?");
+				separator = ",";
+				params.add(id);
+			}
+			sql.append(") ");
+		}
+		if (criteria.getMinBaseSalary() != null) {
+			sql.append("AND seller.BaseSalary >= ? ");
+			params.add(criteria.getMinBaseSalary());
+		}
+		if (criteria.getMaxBaseSalary() != null) {
+			sql.append("AND seller.BaseSalary <= ? ");
+			params.add(criteria.getMaxBaseSalary());
+		}
+		if (criteria.getMinBirthDate() != null) {
+			sql.append("AND seller.BirthDate >= ? ");
+			params.add(new java.sql.Date(criteria.getMinBirthDate().getTime()));
+		}
+		if (criteria.getMaxBirthDate() != null) {
+			sql.append("AND seller.BirthDate <= ? ");
+			params.add(new java.sql.Date(criteria.getMaxBirthDate().getTime()));
+		}
+	}
+
+	private static String sortColumn(SellerCriteria.Sort sort) {
+		switch (sort) {
+		case ID:
+			return "seller.Id";
+		case EMAIL:
+			return "seller.Email";
+		case BIRTH_DATE:
+			return "seller.BirthDate";
+		case BASE_SALARY:
+			return "seller.BaseSalary";
+		default:
+			return "seller.Name";
+		}
+	}
+
+	// so a '%' or '_' typed by the user is matched literally
+	private static String escapeLike(String s) {
+		return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+
+	private int count(Connection conn, Integer departmentId) throws SQLException {
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			st = conn.prepareStatement(
+					"SELECT COUNT(*) FROM seller"
+					+ (departmentId != null ? " WHERE DepartmentId = ?" : ""));
+			if (departmentId != null) {
+				st.setInt(1, departmentId);
+			}
+			rs = st.executeQuery();
+			rs.next();
+			return rs.getInt(1);
+		}
 		finally {
 			DB.closeStatement(st);
 			DB.closeResultSet(rs);
 		}
 	}
-}
+}
\ No newline at end of file
@@ -0,0 +1,135 @@
+package model.dao.impl;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.TimeZone;
+
+import model.dao.SellerRow;
+import model.entities.Department;
+import model.entities.Seller;
+import model.entities.SellerTable;
+
+/*
+ * Maps rows of "SELECT seller.*, department.Name as DepName ..." to Seller.
+ * Column positions are looked up once from the ResultSetMetaData instead of
+ * by label on every getXxx call, and departments are shared through an
+ * int-keyed map, so each row costs one Seller, one Date and the strings.
+ * appendTo() skips the Seller and Date objects altogether and writes the
+ * row into a SellerTable, and read() fills a reused SellerRow. Use one mapper
+ * per ResultSet.
+ */
+class SellerRowMapper {
+
+	private final int id;
+	private final int name;
+	private final int email;
+	private final int birthDate;
+	private final int baseSalary;
+	private final int departmentId;
+	private final int depName;
+
+	private final IntMap<Department> departments = new IntMap<>();
+	private final TimeZone timeZone = TimeZone.getDefault();
+	private final Row row = new Row();
+
+	SellerRowMapper(ResultSet rs) throws SQLException {
+		ResultSetMetaData md = rs.getMetaData();
+		id = column(md, "Id");
+		name = column(md, "Name");
+		email = column(md, "Email");
+		birthDate = column(md, "BirthDate");
+		baseSalary = column(md, "BaseSalary");
+		departmentId = column(md, "DepartmentId");
+		depName = column(md, "DepName");
+	}
+
+	Seller map(ResultSet rs) throws SQLException {
+		Department dep = department(rs);
+		java.sql.Date date = rs.getDate(birthDate);
+		return new Seller(rs.getInt(id), rs.getString(name), rs.getString(email),
+				date == null ? null : new java.util.Date(date.getTime()), rs.getDouble(baseSalary), dep);
+	}
+
+	void appendTo(ResultSet rs, SellerTable.Builder table) throws SQLException {
+		java.sql.Date date = rs.getDate(birthDate);
+		table.add(rs.getInt(id), rs.getString(name), rs.getString(email),
+				date == null ? SellerTable.NO_DATE : epochDay(date.getTime()), rs.getDouble(baseSalary),
+				department(rs));
+	}
+
+	SellerRow read(ResultSet rs) throws SQLException {
+		java.sql.Date date = rs.getDate(birthDate);
+		row.id = rs.getInt(id);
+		row.name = rs.getString(name);
+		row.email = rs.getString(email);
+		row.birthEpochDay = date == null ? SellerTable.NO_DATE : epochDay(date.getTime());
+		row.baseSalary = rs.getDouble(baseSalary);
+		row.department = department(rs);
+		return row;
+	}
+
+	private Department department(ResultSet rs) throws SQLException {
+		int depId = rs.getInt(departmentId);
+		Department dep = departments.get(depId);
+		if (dep == null) {
+			dep = new Department(depId, rs.getString(depName));
+			departments.put(depId, dep);
+		}
+		return dep;
+	}
+
+	// java.sql.Date holds local midnight
+	private int epochDay(long millis) {
+		return (int) Math.floorDiv(millis + timeZone.getOffset(millis), 86_400_000L);
+	}
+
+	private static class Row implements SellerRow {
+
+		private int id;
+		private String name;
+		private String email;
+		private int birthEpochDay;
+		private double baseSalary;
+		private Department department;
+
+		@Override
+		public int getId() {
+			return id;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public String getEmail() {
+			return email;
+		}
+
+		@Override
+		public int getBirthEpochDay() {
+			return birthEpochDay;
+		}
+
+		@Override
+		public double getBaseSalary() {
+			return baseSalary;
+		}
+
+		@Override
+		public Department getDepartment() {
+			return department;
+		}
+	}
+
+	private static int column(ResultSetMetaData md, String label) throws SQLException {
+		for (int i = 1; i <= md.getColumnCount(); i++) {
+			if (label.equalsIgnoreCase(md.getColumnLabel(i))) {
+				return i;
+			}
+		}
+		throw new SQLException("Column " + label + " not found in result set.");
+	}
+}
@@ -0,0 +1,98 @@
+package model.dao.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/*
+ * The MethodMetrics of one DAO interface, one per method name, created up
+ * front so recording never has to create or look up anything but a map
+ * entry. Each method is also registered as an MXBean named
+ * workshop-javafx-jdbc:type=Dao,dao=<dao>,method=<method>.
+ */
+public class DaoMetrics {
+
+	public static final String JMX_DOMAIN = "workshop-javafx-jdbc";
+
+	private static final List<DaoMetrics> registered = new CopyOnWriteArrayList<>();
+
+	private final String dao;
+	private final Map<String, MethodMetrics> methods;
+
+	private DaoMetrics(String dao, Class<?> type) {
+		this.dao = dao;
+		Map<String, MethodMetrics> map = new TreeMap<>();
+		for (Method method : type.getMethods()) {
+			if (!method.isDefault() && !Modifier.isStatic(method.getModifiers())) {
+				map.putIfAbsent(method.getName(), new MethodMetrics(dao, method.getName()));
+			}
+		}
+		this.methods = Collections.unmodifiableMap(map);
+	}
+
+	// Returns the metrics already registered under that name, if any.
+	public static synchronized DaoMetrics register(String dao, Class<?> type) {
+		for (DaoMetrics metrics : registered) {
+			if (metrics.dao.equals(dao)) {
+				return metrics;
+			}
+		}
+		DaoMetrics metrics = new DaoMetrics(dao, type);
+		metrics.registerMBeans();
+		registered.add(metrics);
+		return metrics;
+	}
+
+	public static List<DaoMetrics> getAll() {
+		return new ArrayList<>(registered);
+	}
+
+	public String getDao() {
+		return dao;
+	}
+
+	// null for methods that are not part of the interface (equals, toString...)
+	public MethodMetrics get(String method) {
+		return methods.get(method);
+	}
+
+	public Collection<MethodMetrics> getMethods() {
+		return methods.values();
+	}
+
+	private void registerMBeans() {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for (MethodMetrics metrics : methods.values()) {
+			try {
+				ObjectName name = new ObjectName(JMX_DOMAIN + ":type=Dao,dao=" + dao + ",method=" + metrics.getMethod());
+				if (server.isRegistered(name)) {
+					server.unregisterMBean(name);
+				}
+				server.registerMBean(metrics, name);
+			} catch (JMException e) {
+				throw new IllegalStateException("Could not register DAO metrics: " + e.getMessage(), e);
+			}
+		}
+	}
+
+	public String getStats() {
+		StringBuilder sb = new StringBuilder(dao + " [");
+		for (MethodMetrics metrics : methods.values()) {
+			if (metrics.getCalls() > 0) {
+				sb.append(sb.charAt(sb.length() - 1) == '[' ? "" : ", ").append(metrics);
+			}
+		}
+		return sb.append("]").toString();
+	}
+}
@@ -0,0 +1,155 @@
+package model.dao.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Counters and latency histogram of one DAO method. Recording is a handful
+ * of LongAdder increments, so concurrent callers don't contend on a shared
+ * counter. The histogram has power-of-two buckets from 1.024 us up to about
+ * 34 s (the last bucket also takes anything slower), which is precise
+ * enough for percentiles of calls that go to the database.
+ */
+public class MethodMetrics implements MethodMetricsMXBean {
+
+	static final int BUCKETS = 26;
+	private static final long FIRST_BUCKET_NANOS = 1024;
+
+	private final String dao;
+	private final String method;
+
+	private final LongAdder calls = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder rows = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+	private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+	MethodMetrics(String dao, String method) {
+		this.dao = dao;
+		this.method = method;
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	public void success(long startNanos, long rowCount) {
+		record(System.nanoTime() - startNanos);
+		rows.add(rowCount);
+	}
+
+	public void failure(long startNanos) {
+		record(System.nanoTime() - startNanos);
+		errors.increment();
+	}
+
+	private void record(long nanos) {
+		calls.increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+		buckets[bucket(nanos)].increment();
+	}
+
+	static int bucket(long nanos) {
+		if (nanos <= FIRST_BUCKET_NANOS) {
+			return 0;
+		}
+		return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros((nanos - 1) / FIRST_BUCKET_NANOS));
+	}
+
+	// inclusive upper bound of bucket i
+	static long bucketUpperNanos(int i) {
+		return FIRST_BUCKET_NANOS << i;
+	}
+
+	// not cumulative; the counts may be a little ahead of getCalls() while calls are recorded
+	long[] bucketCounts() {
+		long[] counts = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets[i].sum();
+		}
+		return counts;
+	}
+
+	long getTotalNanos() {
+		return totalNanos.sum();
+	}
+
+	@Override
+	public String getDao() {
+		return dao;
+	}
+
+	@Override
+	public String getMethod() {
+		return method;
+	}
+
+	@Override
+	public long getCalls() {
+		return calls.sum();
+	}
+
+	@Override
+	public long getErrors() {
+		return errors.sum();
+	}
+
+	@Override
+	public long getRows() {
+		return rows.sum();
+	}
+
+	@Override
+	public double getMeanMillis() {
+		long n = calls.sum();
+		return n == 0 ? 0.0 : totalNanos.sum() / 1e6 / n;
+	}
+
+	@Override
+	public double getMaxMillis() {
+		return maxNanos.get() / 1e6;
+	}
+
+	@Override
+	public double getP50Millis() {
+		return percentileMillis(0.5);
+	}
+
+	@Override
+	public double getP90Millis() {
+		return percentileMillis(0.9);
+	}
+
+	@Override
+	public double getP99Millis() {
+		return percentileMillis(0.99);
+	}
+
+	private double percentileMillis(double quantile) {
+		long[] counts = bucketCounts();
+		long total = 0;
+		for (long c : counts) {
+			total += c;
+		}
+		if (total == 0) {
+			return 0.0;
+		}
+		long rank = (long) Math.ceil(quantile * total);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS - 1; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return bucketUpperNanos(i) / 1e6;
+			}
+		}
+		return getMaxMillis();
+	}
+
+	@Override
+	public String toString() {
+		return method + " [calls=" + getCalls() + ", errors=" + getErrors() + ", rows=" + getRows()
+				+ String.format(", mean=%.2f ms, p99=%.2f ms, max=%.2f ms]", getMeanMillis(), getP99Millis(),
+						getMaxMillis());
+	}
+}
@@ -0,0 +1,17 @@
+package model.dao.metrics;
+
+// One DAO method, as seen in JConsole/VisualVM under workshop-javafx-jdbc:type=Dao.
+public interface MethodMetricsMXBean {
+
+	String getDao();
+	String getMethod();
+	long getCalls();
+	long getErrors();
+	long getRows();
+	double getMeanMillis();
+	double getMaxMillis();
+	// upper bound of the histogram bucket holding the percentile
+	double getP50Millis();
+	double getP90Millis();
+	double getP99Millis();
+}
@@ -0,0 +1,113 @@
+package model.dao.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import db.DB;
+
+/*
+ * Serves the DAO metrics in the Prometheus text format on
+ * http://127.0.0.1:<metrics.httpPort>/metrics. Off unless metrics.httpPort
+ * is set; it only listens on the loopback interface.
+ */
+public class MetricsHttpServer {
+
+	private static HttpServer server;
+
+	public static synchronized void startIfConfigured() {
+		int port = DB.getIntProperty("metrics.httpPort", 0);
+		if (port <= 0 || server != null) {
+			return;
+		}
+		try {
+			server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+			server.createContext("/metrics", MetricsHttpServer::handle);
+			server.start();
+		} catch (IOException e) {
+			server = null;
+			System.err.println("Metrics endpoint not started on port " + port + ": " + e.getMessage());
+		}
+	}
+
+	public static synchronized void stop() {
+		if (server != null) {
+			server.stop(0);
+			server = null;
+		}
+	}
+
+	private static void handle(HttpExchange exchange) throws IOException {
+		try {
+			byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+	static String scrape() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("# HELP dao_calls_total DAO method calls.\n# TYPE dao_calls_total counter\n");
+		for (DaoMetrics dao : DaoMetrics.getAll()) {
+			for (MethodMetrics m : dao.getMethods()) {
+				sample(sb, "dao_calls_total", m, null, m.getCalls());
+			}
+		}
+		sb.append("# HELP dao_errors_total DAO method calls that threw.\n# TYPE dao_errors_total counter\n");
+		for (DaoMetrics dao : DaoMetrics.getAll()) {
+			for (MethodMetrics m : dao.getMethods()) {
+				sample(sb, "dao_errors_total", m, null, m.getErrors());
+			}
+		}
+		sb.append("# HELP dao_rows_total Rows returned by DAO methods.\n# TYPE dao_rows_total counter\n");
+		for (DaoMetrics dao : DaoMetrics.getAll()) {
+			for (MethodMetrics m : dao.getMethods()) {
+				sample(sb, "dao_rows_total", m, null, m.getRows());
+			}
+		}
+		sb.append("# HELP dao_latency_seconds DAO method latency.\n# TYPE dao_latency_seconds histogram\n");
+		for (DaoMetrics dao : DaoMetrics.getAll()) {
+			for (MethodMetrics m : dao.getMethods()) {
+				long[] counts = m.bucketCounts();
+				long cumulative = 0;
+				for (int i = 0; i < counts.length - 1; i++) {
+					cumulative += counts[i];
+					sample(sb, "dao_latency_seconds_bucket", m,
+							Double.toString(MethodMetrics.bucketUpperNanos(i) / 1e9), cumulative);
+				}
+				cumulative += counts[counts.length - 1];
+				sample(sb, "dao_latency_seconds_bucket", m, "+Inf", cumulative);
+				sb.append("dao_latency_seconds_sum");
+				labels(sb, m, null);
+				sb.append(' ').append(m.getTotalNanos() / 1e9).append('\n');
+				sample(sb, "dao_latency_seconds_count", m, null, cumulative);
+			}
+		}
+		return sb.toString();
+	}
+
+	private static void sample(StringBuilder sb, String name, MethodMetrics m, String le, long value) {
+		sb.append(name);
+		labels(sb, m, le);
+		sb.append(' ').append(value).append('\n');
+	}
+
+	// DAO and method names are Java identifiers: nothing to escape
+	private static void labels(StringBuilder sb, MethodMetrics m, String le) {
+		sb.append("{dao=\"").append(m.getDao()).append("\",method=\"").append(m.getMethod()).append('"');
+		if (le != null) {
+			sb.append(",le=\"").append(le).append('"');
+		}
+		sb.append('}');
+	}
+}
@@ -0,0 +1,53 @@
+package model.entities;
+
+import java.io.Serializable;
+
+// Salary summary of the sellers of one department. min/max are null when it has no sellers.
+public class DepartmentSalaryStats implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Department department;
+	private int count;
+	private double total;
+	private Double min;
+	private Double max;
+
+	public DepartmentSalaryStats(Department department, int count, double total, Double min, Double max) {
+		this.department = department;
+		this.count = count;
+		this.total = total;
+		this.min = min;
+		this.max = max;
+	}
+
+	public Department getDepartment() {
+		return department;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public double getTotal() {
+		return total;
+	}
+
+	public Double getMin() {
+		return min;
+	}
+
+	public Double getMax() {
+		return max;
+	}
+
+	public Double getAverage() {
+		return count == 0 ? null : total / count;
+	}
+
+	@Override
+	public String toString() {
+		return "DepartmentSalaryStats [department=" + department + ", count=" + count + ", total=" + total + ", min="
+				+ min + ", max=" + max + "]";
+	}
+}
@@ -0,0 +1,236 @@
+package model.entities;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/*
+ * Read-only, column-oriented copy of many sellers. Instead of one Seller
+ * object per row (boxed fields, Date, two Strings) it keeps primitive arrays:
+ * ids, salaries, birth dates as epoch days, departments as an index into a
+ * small dictionary, and names/emails as UTF-8 bytes in one shared array.
+ * That is roughly a quarter of the heap of the equivalent List<Seller>.
+ *
+ * Rows are read with the getXxx(row) methods, or as throwaway Seller objects
+ * through asList() (e.g. for a TableView, which only asks for visible rows).
+ */
+public class SellerTable {
+
+	public static final int NO_DATE = Integer.MIN_VALUE;
+
+	private final int size;
+	private final int[] ids;
+	private final double[] baseSalaries;
+	private final int[] birthEpochDays;
+	private final short[] departmentIndexes;
+	private final Department[] departments;
+	private final byte[] text;
+	// name of row i is text[textOffsets[2i] .. textOffsets[2i+1]), email runs up to textOffsets[2i+2]
+	private final int[] textOffsets;
+
+	private SellerTable(Builder b) {
+		size = b.size;
+		ids = Arrays.copyOf(b.ids, size);
+		baseSalaries = Arrays.copyOf(b.baseSalaries, size);
+		birthEpochDays = Arrays.copyOf(b.birthEpochDays, size);
+		departmentIndexes = Arrays.copyOf(b.departmentIndexes, size);
+		departments = Arrays.copyOf(b.departments, b.departmentCount);
+		text = Arrays.copyOf(b.text, b.textLength);
+		textOffsets = Arrays.copyOf(b.textOffsets, 2 * size + 1);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getId(int row) {
+		return ids[row];
+	}
+
+	public double getBaseSalary(int row) {
+		return baseSalaries[row];
+	}
+
+	// NO_DATE when the seller has no birth date
+	public int getBirthEpochDay(int row) {
+		return birthEpochDays[row];
+	}
+
+	public Department getDepartment(int row) {
+		return departments[departmentIndexes[row]];
+	}
+
+	// index into getDepartments(), for grouping without touching the Department objects
+	public int getDepartmentIndex(int row) {
+		return departmentIndexes[row];
+	}
+
+	public List<Department> getDepartments() {
+		return List.of(departments);
+	}
+
+	public String getName(int row) {
+		return decode(textOffsets[2 * row], textOffsets[2 * row + 1]);
+	}
+
+	public String getEmail(int row) {
+		return decode(textOffsets[2 * row + 1], textOffsets[2 * row + 2]);
+	}
+
+	public Date getBirthDate(int row) {
+		int day = birthEpochDays[row];
+		if (day == NO_DATE) {
+			return null;
+		}
+		return Date.from(LocalDate.ofEpochDay(day).atStartOfDay(ZoneId.systemDefault()).toInstant());
+	}
+
+	public Seller getSeller(int row) {
+		return new Seller(ids[row], getName(row), getEmail(row), getBirthDate(row), baseSalaries[row],
+				getDepartment(row));
+	}
+
+	// Read-only views over the columns, without copying them.
+	public IntBuffer ids() {
+		return IntBuffer.wrap(ids).asReadOnlyBuffer();
+	}
+
+	public DoubleBuffer baseSalaries() {
+		return DoubleBuffer.wrap(baseSalaries).asReadOnlyBuffer();
+	}
+
+	public IntBuffer birthEpochDays() {
+		return IntBuffer.wrap(birthEpochDays).asReadOnlyBuffer();
+	}
+
+	// Seller view of the rows; each get(i) builds a new Seller.
+	public List<Seller> asList() {
+		return new AbstractList<Seller>() {
+			@Override
+			public Seller get(int index) {
+				if (index < 0 || index >= size) {
+					throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+				}
+				return getSeller(index);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	public long getEstimatedBytes() {
+		return 4L * ids.length + 8L * baseSalaries.length + 4L * birthEpochDays.length
+				+ 2L * departmentIndexes.length + text.length + 4L * textOffsets.length + 7 * 16;
+	}
+
+	private String decode(int from, int to) {
+		return new String(text, from, to - from, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public String toString() {
+		return "SellerTable [size=" + size + ", departments=" + departments.length + ", estimatedKB="
+				+ getEstimatedBytes() / 1024 + "]";
+	}
+
+	public static class Builder {
+
+		private int size;
+		private int[] ids = new int[64];
+		private double[] baseSalaries = new double[64];
+		private int[] birthEpochDays = new int[64];
+		private short[] departmentIndexes = new short[64];
+		private Department[] departments = new Department[8];
+		private int departmentCount;
+		private byte[] text = new byte[1024];
+		private int textLength;
+		private int[] textOffsets = new int[129];
+
+		public Builder add(int id, String name, String email, int birthEpochDay, double baseSalary,
+				Department department) {
+			if (size == ids.length) {
+				int capacity = size * 2;
+				ids = Arrays.copyOf(ids, capacity);
+				baseSalaries = Arrays.copyOf(baseSalaries, capacity);
+				birthEpochDays = Arrays.copyOf(birthEpochDays, capacity);
+				departmentIndexes = Arrays.copyOf(departmentIndexes, capacity);
+				textOffsets = Arrays.copyOf(textOffsets, 2 * capacity + 1);
+			}
+			ids[size] = id;
+			baseSalaries[size] = baseSalary;
+			birthEpochDays[size] = birthEpochDay;
+			departmentIndexes[size] = departmentIndex(department);
+			textOffsets[2 * size] = textLength;
+			encode(name);
+			textOffsets[2 * size + 1] = textLength;
+			encode(email);
+			textOffsets[2 * size + 2] = textLength;
+			size++;
+			return this;
+		}
+
+		public SellerTable build() {
+			return new SellerTable(this);
+		}
+
+		// departments are few: a linear scan is cheaper than hashing
+		private short departmentIndex(Department department) {
+			for (int i = 0; i < departmentCount; i++) {
+				if (departments[i] == department || departments[i].equals(department)) {
+					return (short) i;
+				}
+			}
+			if (departmentCount == Short.MAX_VALUE) {
+				throw new IllegalStateException("Too many departments for a SellerTable.");
+			}
+			if (departmentCount == departments.length) {
+				departments = Arrays.copyOf(departments, departmentCount * 2);
+			}
+			departments[departmentCount] = department;
+			return (short) departmentCount++;
+		}
+
+		// UTF-8 straight into the shared array, without a temporary byte[] per string
+		private void encode(String s) {
+			if (s == null) {
+				return;
+			}
+			ensureText(s.length() * 3);
+			for (int i = 0; i < s.length(); i++) {
+				char c = s.charAt(i);
+				if (c < 0x80) {
+					text[textLength++] = (byte) c;
+				} else if (c < 0x800) {
+					text[textLength++] = (byte) (0xC0 | (c >> 6));
+					text[textLength++] = (byte) (0x80 | (c & 0x3F));
+				} else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+						&& Character.isLowSurrogate(s.charAt(i + 1))) {
+					int cp = Character.toCodePoint(c, s.charAt(++i));
+					text[textLength++] = (byte) (0xF0 | (cp >> 18));
+					text[textLength++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+					text[textLength++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+					text[textLength++] = (byte) (0x80 | (cp & 0x3F));
+				} else {
+					text[textLength++] = (byte) (0xE0 | (c >> 12));
+					text[textLength++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+					text[textLength++] = (byte) (0x80 | (c & 0x3F));
+				}
+			}
+		}
+
+		private void ensureText(int extra) {
+			if (textLength + extra > text.length) {
+				text = Arrays.copyOf(text, Math.max(text.length * 2, textLength + extra));
+			}
+		}
+	}
+}
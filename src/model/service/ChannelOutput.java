@@ -0,0 +1,213 @@
+package model.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Buffered byte writer over a FileChannel, optionally gzipped, with the few
+ * encoders the exports need: UTF-8 text, integers, fixed two-decimal numbers
+ * and ISO dates, all written straight into the buffer without intermediate
+ * Strings or formatters.
+ *
+ * The bytes go to a temporary file next to the target, which commit() moves
+ * over the target once everything is written; close() without commit()
+ * deletes it, so a failed export leaves the previous file untouched.
+ */
+class ChannelOutput implements Closeable {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final Path target;
+	private final Path temp;
+	private final FileChannel channel;
+	private final GZIPOutputStream gzip;
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private final byte[] bytes = buffer.array();
+	private final byte[] digits = new byte[20];
+	private int position;
+	private boolean committed;
+
+	ChannelOutput(Path path, boolean gzip) throws IOException {
+		target = path.toAbsolutePath();
+		temp = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+		FileChannel ch = null;
+		GZIPOutputStream out = null;
+		try {
+			ch = FileChannel.open(temp, StandardOpenOption.WRITE);
+			out = gzip ? new GZIPOutputStream(Channels.newOutputStream(ch), BUFFER_SIZE) : null;
+		} finally {
+			if (ch == null || (gzip && out == null)) {
+				if (ch != null) {
+					ch.close();
+				}
+				Files.deleteIfExists(temp);
+			}
+		}
+		channel = ch;
+		this.gzip = out;
+	}
+
+	void write(int b) throws IOException {
+		if (position == bytes.length) {
+			flushBuffer();
+		}
+		bytes[position++] = (byte) b;
+	}
+
+	// for the fixed parts of the format (names, punctuation)
+	void writeAscii(String s) throws IOException {
+		for (int i = 0; i < s.length(); i++) {
+			write(s.charAt(i));
+		}
+	}
+
+	void writeUtf8(char c) throws IOException {
+		if (c < 0x80) {
+			write(c);
+		} else if (c < 0x800) {
+			write(0xC0 | (c >> 6));
+			write(0x80 | (c & 0x3F));
+		} else {
+			write(0xE0 | (c >> 12));
+			write(0x80 | ((c >> 6) & 0x3F));
+			write(0x80 | (c & 0x3F));
+		}
+	}
+
+	// code points above U+FFFF (surrogate pairs in a String)
+	void writeUtf8CodePoint(int cp) throws IOException {
+		if (cp < 0x10000) {
+			writeUtf8((char) cp);
+		} else {
+			write(0xF0 | (cp >> 18));
+			write(0x80 | ((cp >> 12) & 0x3F));
+			write(0x80 | ((cp >> 6) & 0x3F));
+			write(0x80 | (cp & 0x3F));
+		}
+	}
+
+	void writeLong(long v) throws IOException {
+		if (v < 0) {
+			write('-');
+			if (v == Long.MIN_VALUE) {
+				writeAscii("9223372036854775808");
+				return;
+			}
+			v = -v;
+		}
+		int n = digits.length;
+		do {
+			digits[--n] = (byte) ('0' + v % 10);
+			v /= 10;
+		} while (v != 0);
+		while (n < digits.length) {
+			write(digits[n++]);
+		}
+	}
+
+	// Same text as String.format(Locale.US, "%.2f", v) and CellFormat.decimal(2):
+	// the shortest decimal form of v rounded half up, so 1.005 -> 1.01 and
+	// -0.0 -> -0.00. Values that already have at most two decimals (v * 100 is
+	// whole) are written from the long; the rest go through BigDecimal.
+	void writeFixed2(double v) throws IOException {
+		if (Double.isNaN(v) || Double.isInfinite(v)) {
+			writeAscii(Double.toString(v));
+			return;
+		}
+		if (v < 0 || (v == 0 && 1 / v < 0)) {
+			write('-');
+			v = -v;
+		}
+		double scaled = v * 100;
+		if (scaled != Math.rint(scaled) || scaled >= 1e15) {
+			writeAscii(BigDecimal.valueOf(v).setScale(2, RoundingMode.HALF_UP).toPlainString());
+			return;
+		}
+		long cents = (long) scaled;
+		writeLong(cents / 100);
+		write('.');
+		write('0' + (int) (cents % 100 / 10));
+		write('0' + (int) (cents % 10));
+	}
+
+	// yyyy-MM-dd (proleptic Gregorian, same as LocalDate.ofEpochDay)
+	void writeIsoDate(int epochDay) throws IOException {
+		long z = epochDay + 719468L;
+		long era = Math.floorDiv(z, 146097);
+		long doe = z - era * 146097;
+		long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+		long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+		long mp = (5 * doy + 2) / 153;
+		int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+		int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+		long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+		if (year < 0) {
+			write('-');
+			year = -year;
+		}
+		if (year < 1000) {
+			write('0');
+			if (year < 100) {
+				write('0');
+			}
+			if (year < 10) {
+				write('0');
+			}
+		}
+		writeLong(year);
+		write('-');
+		writeTwoDigits(month);
+		write('-');
+		writeTwoDigits(day);
+	}
+
+	private void writeTwoDigits(int v) throws IOException {
+		write('0' + v / 10);
+		write('0' + v % 10);
+	}
+
+	private void flushBuffer() throws IOException {
+		if (gzip != null) {
+			gzip.write(bytes, 0, position);
+		} else {
+			buffer.clear();
+			buffer.limit(position);
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+		position = 0;
+	}
+
+	// Writes out what's left and replaces the target with the new file.
+	void commit() throws IOException {
+		flushBuffer();
+		if (gzip != null) {
+			gzip.finish();
+		}
+		channel.close();
+		Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		committed = true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!committed) {
+			try {
+				channel.close();
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+		}
+	}
+}
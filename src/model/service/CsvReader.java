@@ -0,0 +1,94 @@
+package model.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Minimal streaming CSV reader (RFC 4180): comma separated, fields may be
+ * quoted, "" is a quote inside a quoted field, and quoted fields may span
+ * lines. Reads through its own buffer, so memory stays at one record.
+ */
+class CsvReader {
+
+	private final Reader reader;
+	private final char[] buffer = new char[8192];
+	private int position;
+	private int limit;
+	private long line = 1;
+	private long recordLine;
+
+	CsvReader(Reader reader) {
+		this.reader = reader;
+	}
+
+	// null at end of file
+	List<String> readRecord() throws IOException {
+		recordLine = line;
+		int c = read();
+		if (c == -1) {
+			return null;
+		}
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		while (true) {
+			if (quoted) {
+				if (c == -1) {
+					throw new IOException("Line " + recordLine + ": unterminated quoted field.");
+				}
+				if (c == '"') {
+					int next = read();
+					if (next == '"') {
+						field.append('"');
+					} else {
+						quoted = false;
+						c = next;
+						continue;
+					}
+				} else {
+					field.append((char) c);
+				}
+			} else if (c == '"' && field.length() == 0) {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else if (c == '\r' || c == '\n' || c == -1) {
+				if (c == '\r') {
+					int next = read();
+					if (next != '\n' && next != -1) {
+						position--;
+					}
+				}
+				fields.add(field.toString());
+				return fields;
+			} else {
+				field.append((char) c);
+			}
+			c = read();
+		}
+	}
+
+	// line where the last record returned by readRecord started
+	long getRecordLine() {
+		return recordLine;
+	}
+
+	private int read() throws IOException {
+		if (position == limit) {
+			limit = reader.read(buffer, 0, buffer.length);
+			position = 0;
+			if (limit <= 0) {
+				limit = 0;
+				return -1;
+			}
+		}
+		char c = buffer[position++];
+		if (c == '\n') {
+			line++;
+		}
+		return c;
+	}
+}
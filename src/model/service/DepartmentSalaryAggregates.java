@@ -0,0 +1,276 @@
+package model.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import model.dao.DaoFactory;
+import model.dao.SellerDao;
+import model.entities.Department;
+import model.entities.DepartmentSalaryStats;
+import model.entities.Seller;
+
+/*
+ * Salary summary per department (count, total, min, max, average) kept in
+ * memory. SellerService reports every single save and remove with the old
+ * and new values, so reading it is O(departments) instead of a scan of the
+ * sellers. rebuild() reloads it with one GROUP BY; bulk writes and department
+ * changes only mark it stale, and the next read rebuilds it.
+ *
+ * Min and max can't be undone incrementally: when the seller holding one of
+ * them leaves, only that department is queried again, on the next read.
+ */
+public class DepartmentSalaryAggregates {
+
+	private static DepartmentSalaryAggregates instance;
+
+	public static synchronized DepartmentSalaryAggregates getInstance() {
+		if (instance == null) {
+			instance = new DepartmentSalaryAggregates(DaoFactory.createSellerDao());
+			DaoFactory.createDepartmentDao().addInvalidationListener(instance::invalidate);
+		}
+		return instance;
+	}
+
+	private final SellerDao dao;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	// in department name order, as returned by the GROUP BY
+	private Map<Integer, Summary> byDepartment = new LinkedHashMap<>();
+	private boolean stale = true;
+	// bumped by every change, so a rebuild that raced with one is not trusted
+	private long changes;
+
+	private long rebuilds;
+	private long incrementalUpdates;
+	private long departmentReloads;
+
+	public DepartmentSalaryAggregates(SellerDao dao) {
+		this.dao = dao;
+	}
+
+	public void rebuild() {
+		long changesBefore;
+		lock.lock();
+		try {
+			changesBefore = changes;
+		} finally {
+			lock.unlock();
+		}
+		List<DepartmentSalaryStats> list = dao.findSalaryStatsByDepartment();
+		Map<Integer, Summary> map = new LinkedHashMap<>();
+		for (DepartmentSalaryStats stats : list) {
+			map.put(stats.getDepartment().getId(), new Summary(stats));
+		}
+		lock.lock();
+		try {
+			byDepartment = map;
+			stale = changes != changesBefore;
+			rebuilds++;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void invalidate() {
+		lock.lock();
+		try {
+			stale = true;
+			changes++;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void added(Seller obj) {
+		lock.lock();
+		try {
+			if (!stale && !add(obj)) {
+				stale = true;
+			}
+			changes++;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// before is the row as it was in the database, null if it wasn't found
+	public void updated(Seller before, Seller after) {
+		lock.lock();
+		try {
+			if (!stale && (before == null || !remove(before) || !add(after))) {
+				stale = true;
+			}
+			changes++;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void removed(Seller before) {
+		if (before == null) {
+			return;
+		}
+		lock.lock();
+		try {
+			if (!stale && !remove(before)) {
+				stale = true;
+			}
+			changes++;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public List<DepartmentSalaryStats> getAll() {
+		if (isStale()) {
+			rebuild();
+		}
+		reloadDirtyDepartments();
+		lock.lock();
+		try {
+			List<DepartmentSalaryStats> list = new ArrayList<>(byDepartment.size());
+			for (Summary summary : byDepartment.values()) {
+				list.add(summary.toStats());
+			}
+			return list;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private boolean isStale() {
+		lock.lock();
+		try {
+			return stale;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void reloadDirtyDepartments() {
+		Map<Summary, Long> dirty = new LinkedHashMap<>();
+		lock.lock();
+		try {
+			for (Summary summary : byDepartment.values()) {
+				if (summary.minMaxUnknown) {
+					dirty.put(summary, summary.changes);
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+		for (Map.Entry<Summary, Long> entry : dirty.entrySet()) {
+			Summary summary = entry.getKey();
+			DepartmentSalaryStats stats = dao.findSalaryStats(summary.department);
+			lock.lock();
+			try {
+				// if it changed or was rebuilt meanwhile, leave it for the next read
+				if (byDepartment.get(summary.department.getId()) == summary && summary.changes == entry.getValue()
+						&& stats != null) {
+					summary.min = stats.getMin();
+					summary.max = stats.getMax();
+					summary.minMaxUnknown = false;
+				}
+				departmentReloads++;
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	// false when obj can't be applied (missing data), the caller then marks everything stale
+	private boolean add(Seller obj) {
+		if (obj.getDepartment() == null || obj.getDepartment().getId() == null || obj.getBaseSalary() == null) {
+			return false;
+		}
+		Summary summary = byDepartment.get(obj.getDepartment().getId());
+		if (summary == null) {
+			summary = new Summary(new DepartmentSalaryStats(obj.getDepartment(), 0, 0.0, null, null));
+			byDepartment.put(obj.getDepartment().getId(), summary);
+		}
+		summary.add(obj.getBaseSalary());
+		incrementalUpdates++;
+		return true;
+	}
+
+	private boolean remove(Seller obj) {
+		if (obj.getDepartment() == null || obj.getBaseSalary() == null) {
+			return false;
+		}
+		Summary summary = byDepartment.get(obj.getDepartment().getId());
+		if (summary == null || summary.count == 0) {
+			return false;
+		}
+		summary.remove(obj.getBaseSalary());
+		incrementalUpdates++;
+		return true;
+	}
+
+	public String getStats() {
+		lock.lock();
+		try {
+			return "DepartmentSalaryAggregates [departments=" + byDepartment.size() + ", stale=" + stale
+					+ ", rebuilds=" + rebuilds + ", incrementalUpdates=" + incrementalUpdates
+					+ ", departmentReloads=" + departmentReloads + "]";
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static class Summary {
+
+		private final Department department;
+		private int count;
+		// BigDecimal so adding and subtracting salaries doesn't drift
+		private BigDecimal total;
+		private Double min;
+		private Double max;
+		private boolean minMaxUnknown;
+		private long changes;
+
+		Summary(DepartmentSalaryStats stats) {
+			department = stats.getDepartment();
+			count = stats.getCount();
+			total = BigDecimal.valueOf(stats.getTotal());
+			min = stats.getMin();
+			max = stats.getMax();
+		}
+
+		void add(double salary) {
+			count++;
+			total = total.add(BigDecimal.valueOf(salary));
+			if (count == 1) {
+				min = salary;
+				max = salary;
+				minMaxUnknown = false;
+			} else if (!minMaxUnknown) {
+				min = Math.min(min, salary);
+				max = Math.max(max, salary);
+			}
+			changes++;
+		}
+
+		void remove(double salary) {
+			count--;
+			total = total.subtract(BigDecimal.valueOf(salary));
+			if (count == 0) {
+				total = BigDecimal.ZERO;
+				min = null;
+				max = null;
+				minMaxUnknown = false;
+			} else if (!minMaxUnknown && (salary <= min || salary >= max)) {
+				minMaxUnknown = true;
+			}
+			changes++;
+		}
+
+		DepartmentSalaryStats toStats() {
+			return new DepartmentSalaryStats(department, count, total.doubleValue(), minMaxUnknown ? null : min,
+					minMaxUnknown ? null : max);
+		}
+	}
+}
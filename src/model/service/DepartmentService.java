@@ -1,9 +1,12 @@
 package model.service;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import db.DBBatch;
 import model.dao.DaoFactory;
 import model.dao.DepartmentDao;
+import model.dao.impl.CachingDepartmentDao;
 import model.entities.Department;
 
 public class DepartmentService {
@@ -23,6 +26,11 @@ public class DepartmentService {
 		return dao.findAll();
 	}
 	
+	// Never blocks: null when the departments aren't cached (use findAllAsync then).
+	public List<Department> findAllIfCached() {
+		return ((CachingDepartmentDao) dao).findAllIfCached();
+	}
+	
 	// Aula 277
 	public void saveOrUpdate(Department obj) {
 		if(obj.getId() == null) {
@@ -32,7 +40,39 @@ public class DepartmentService {
 		}
 	}
 	
+	// Bulk version of saveOrUpdate: new rows go through dao.insertAll and the
+	// others through dao.updateAll. Errors are reported by position in list.
+	public void saveOrUpdateAll(List<Department> list) {
+		DBBatch.saveOrUpdateAll(list, obj -> obj.getId() == null, dao::insertAll, dao::updateAll,
+				"Some departments could not be saved.");
+	}
+	
 	public void remove(Department obj) {
 		dao.deleteById(obj.getId());
 	}
-}
+	
+	public String getCacheStats() {
+		return ((CachingDepartmentDao) dao).getStats();
+	}
+	
+	// Runs on the thread that changed the departments, after the cache was dropped.
+	public void addChangeListener(Runnable listener) {
+		((CachingDepartmentDao) dao).addInvalidationListener(listener);
+	}
+	
+	// Async variants run on ServiceExecutor; use them from the JavaFX thread.
+	public CompletableFuture<List<Department>> findAllAsync() {
+		return ServiceExecutor.supplyAsync(this::findAll);
+	}
+	
+	public CompletableFuture<Department> saveOrUpdateAsync(Department obj) {
+		return ServiceExecutor.supplyAsync(() -> {
+			saveOrUpdate(obj);
+			return obj;
+		});
+	}
+	
+	public CompletableFuture<Void> removeAsync(Department obj) {
+		return ServiceExecutor.runAsync(() -> remove(obj));
+	}
+}
\ No newline at end of file
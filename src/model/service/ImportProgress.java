@@ -0,0 +1,69 @@
+package model.service;
+
+// Snapshot of a running (or finished) SellerCsvImport.
+public class ImportProgress {
+
+	private final long rowsRead;
+	private final long imported;
+	private final long failed;
+	private final long bytesRead;
+	private final long totalBytes;
+	private final long elapsedNanos;
+	private final boolean finished;
+	private final boolean cancelled;
+
+	public ImportProgress(long rowsRead, long imported, long failed, long bytesRead, long totalBytes,
+			long elapsedNanos, boolean finished, boolean cancelled) {
+		this.rowsRead = rowsRead;
+		this.imported = imported;
+		this.failed = failed;
+		this.bytesRead = bytesRead;
+		this.totalBytes = totalBytes;
+		this.elapsedNanos = elapsedNanos;
+		this.finished = finished;
+		this.cancelled = cancelled;
+	}
+
+	public long getRowsRead() {
+		return rowsRead;
+	}
+
+	public long getImported() {
+		return imported;
+	}
+
+	public long getFailed() {
+		return failed;
+	}
+
+	// 0..1, by bytes read from the file
+	public double getFraction() {
+		if (finished) {
+			return 1.0;
+		}
+		return totalBytes == 0 ? 0.0 : Math.min(1.0, (double) bytesRead / totalBytes);
+	}
+
+	public double getRowsPerSecond() {
+		return elapsedNanos == 0 ? 0.0 : rowsRead * 1_000_000_000.0 / elapsedNanos;
+	}
+
+	public double getElapsedSeconds() {
+		return elapsedNanos / 1_000_000_000.0;
+	}
+
+	public boolean isFinished() {
+		return finished;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	@Override
+	public String toString() {
+		return "ImportProgress [rowsRead=" + rowsRead + ", imported=" + imported + ", failed=" + failed
+				+ ", rowsPerSecond=" + String.format("%.0f", getRowsPerSecond()) + ", finished=" + finished
+				+ ", cancelled=" + cancelled + "]";
+	}
+}
@@ -0,0 +1,260 @@
+package model.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import db.DB;
+import db.DBBatchException;
+import model.entities.Department;
+import model.entities.Seller;
+import model.exceptions.ValidationException;
+
+/*
+ * Imports sellers from a CSV file with a header line naming the columns Name,
+ * Email, BirthDate (dd/MM/yyyy or yyyy-MM-dd), BaseSalary and Department
+ * (name or id), in any order. The file is streamed: only the current chunk
+ * of DB.getBatchSize() valid rows is kept, and each chunk is written with
+ * SellerService.saveOrUpdateAll (batched inserts, one transaction per chunk).
+ * Rows are validated with the form's rules (SellerValidator); bad rows are
+ * reported by line and skipped. cancel() stops after the current row; chunks
+ * already written stay in the database.
+ */
+public class SellerCsvImport {
+
+	public interface Listener {
+		// called from the importing thread
+		void onProgress(ImportProgress progress);
+		void onError(long line, String message);
+	}
+
+	private static final int PROGRESS_EVERY_ROWS = 1000;
+
+	private static final String[] COLUMNS = { "Name", "Email", "BirthDate", "BaseSalary", "Department" };
+	// error keys in the order they are reported
+	private static final String[] FIELDS = { "name", "email", "birthDate", "baseSalary", "department" };
+
+	private static final DateTimeFormatter FORM_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+	private final Path file;
+	private final SellerService sellerService;
+	private final DepartmentService departmentService;
+	private final int chunkSize;
+	private final AtomicBoolean cancelled = new AtomicBoolean();
+
+	private long rowsRead;
+	private long imported;
+	private long failed;
+
+	public SellerCsvImport(Path file, SellerService sellerService, DepartmentService departmentService) {
+		this.file = file;
+		this.sellerService = sellerService;
+		this.departmentService = departmentService;
+		this.chunkSize = DB.getBatchSize();
+	}
+
+	public void cancel() {
+		cancelled.set(true);
+	}
+
+	public boolean isCancelled() {
+		return cancelled.get();
+	}
+
+	// Blocks until the whole file is read; run it off the JavaFX thread.
+	public ImportProgress run(Listener listener) {
+		long start = System.nanoTime();
+		Map<String, Department> departments = departmentsByNameAndId();
+		try (CountingInputStream in = new CountingInputStream(Files.newInputStream(file));
+				Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+			long totalBytes = Files.size(file);
+			CsvReader csv = new CsvReader(reader);
+			int[] columns = resolveColumns(csv.readRecord());
+
+			List<Seller> chunk = new ArrayList<>(chunkSize);
+			List<Long> chunkLines = new ArrayList<>(chunkSize);
+			List<String> record;
+			while (!cancelled.get() && (record = csv.readRecord()) != null) {
+				if (record.size() == 1 && record.get(0).trim().isEmpty()) {
+					continue;
+				}
+				rowsRead++;
+				try {
+					chunk.add(parse(record, columns, departments));
+					chunkLines.add(csv.getRecordLine());
+				} catch (ValidationException e) {
+					failed++;
+					listener.onError(csv.getRecordLine(), describe(e));
+				}
+				if (chunk.size() == chunkSize) {
+					flush(chunk, chunkLines, listener);
+				}
+				if (rowsRead % PROGRESS_EVERY_ROWS == 0) {
+					listener.onProgress(progress(in.count, totalBytes, start, false));
+				}
+			}
+			if (!cancelled.get()) {
+				flush(chunk, chunkLines, listener);
+			}
+			ImportProgress result = progress(in.count, totalBytes, start, true);
+			listener.onProgress(result);
+			return result;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e.getMessage(), e);
+		}
+	}
+
+	private void flush(List<Seller> chunk, List<Long> chunkLines, Listener listener) {
+		if (chunk.isEmpty()) {
+			return;
+		}
+		try {
+			sellerService.saveOrUpdateAll(chunk);
+			imported += chunk.size();
+		} catch (DBBatchException e) {
+			imported += chunk.size() - e.getErrors().size();
+			failed += e.getErrors().size();
+			for (Map.Entry<Integer, String> error : e.getErrors().entrySet()) {
+				listener.onError(chunkLines.get(error.getKey()), error.getValue());
+			}
+		}
+		chunk.clear();
+		chunkLines.clear();
+	}
+
+	private ImportProgress progress(long bytesRead, long totalBytes, long start, boolean finished) {
+		return new ImportProgress(rowsRead, imported, failed, bytesRead, totalBytes, System.nanoTime() - start,
+				finished, cancelled.get());
+	}
+
+	// the department cache is read once; each row is then a map lookup
+	private Map<String, Department> departmentsByNameAndId() {
+		Map<String, Department> map = new HashMap<>();
+		for (Department dep : departmentService.findAll()) {
+			map.put(dep.getName().trim().toLowerCase(), dep);
+			map.put(String.valueOf(dep.getId()), dep);
+		}
+		return map;
+	}
+
+	private static int[] resolveColumns(List<String> header) {
+		if (header == null) {
+			throw new IllegalArgumentException("The file is empty.");
+		}
+		int[] columns = new int[COLUMNS.length];
+		List<String> missing = new ArrayList<>();
+		for (int i = 0; i < COLUMNS.length; i++) {
+			columns[i] = -1;
+			for (int j = 0; j < header.size(); j++) {
+				// a UTF-8 byte order mark may precede the first name
+				if (COLUMNS[i].equalsIgnoreCase(header.get(j).replace("\uFEFF", "").trim())) {
+					columns[i] = j;
+				}
+			}
+			if (columns[i] < 0) {
+				missing.add(COLUMNS[i]);
+			}
+		}
+		if (!missing.isEmpty()) {
+			throw new IllegalArgumentException("Missing column(s) in the header line: " + String.join(", ", missing));
+		}
+		return columns;
+	}
+
+	private static Seller parse(List<String> record, int[] columns, Map<String, Department> departments) {
+		ValidationException exception = new ValidationException("Validation error.");
+
+		String birthDateText = field(record, columns[2]);
+		LocalDate birthDate = null;
+		if (!birthDateText.isEmpty()) {
+			birthDate = parseDate(birthDateText);
+			if (birthDate == null) {
+				exception.addError("birthDate", "Invalid date, use dd/MM/yyyy or yyyy-MM-dd.");
+			}
+		}
+		String departmentText = field(record, columns[4]);
+		Department department = departments.get(departmentText.toLowerCase());
+		if (department == null) {
+			exception.addError("department",
+					departmentText.isEmpty() ? "Field can't be empty." : "Unknown department: " + departmentText);
+		}
+
+		Seller obj = null;
+		try {
+			obj = SellerValidator.validate(null, field(record, columns[0]), field(record, columns[1]), birthDate,
+					field(record, columns[3]), department);
+		} catch (ValidationException e) {
+			for (Map.Entry<String, String> error : e.getErrors().entrySet()) {
+				exception.getErrors().putIfAbsent(error.getKey(), error.getValue());
+			}
+		}
+		if (exception.getErrors().size() > 0) {
+			throw exception;
+		}
+		return obj;
+	}
+
+	private static String field(List<String> record, int column) {
+		return column < record.size() ? record.get(column).trim() : "";
+	}
+
+	private static LocalDate parseDate(String text) {
+		try {
+			return LocalDate.parse(text, text.contains("/") ? FORM_DATE : DateTimeFormatter.ISO_LOCAL_DATE);
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+
+	private static String describe(ValidationException e) {
+		StringBuilder sb = new StringBuilder();
+		for (String fieldName : FIELDS) {
+			String message = e.getErrors().get(fieldName);
+			if (message != null) {
+				sb.append(sb.length() == 0 ? "" : "; ").append(fieldName).append(": ").append(message);
+			}
+		}
+		return sb.toString();
+	}
+
+	private static class CountingInputStream extends FilterInputStream {
+
+		private long count;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b >= 0) {
+				count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if (n > 0) {
+				count += n;
+			}
+			return n;
+		}
+	}
+}
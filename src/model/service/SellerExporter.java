@@ -0,0 +1,188 @@
+package model.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+import model.dao.SellerRow;
+import model.entities.SellerTable;
+
+/*
+ * Writes every seller to a file as CSV or JSON Lines, straight from a
+ * streaming result set (SellerService.forEachRow): no Seller objects and no
+ * list, and dates and salaries are encoded by ChannelOutput instead of
+ * SimpleDateFormat/String.format. Memory use doesn't depend on the number
+ * of rows. The CSV has the header names SellerCsvImport expects, so an
+ * export can be imported back.
+ */
+public class SellerExporter {
+
+	public enum Format {
+		CSV, JSONL;
+
+		// sellers.csv, sellers.jsonl, sellers.csv.gz...
+		public static Format forFileName(String fileName) {
+			String name = stripGzip(fileName.toLowerCase());
+			return name.endsWith(".jsonl") || name.endsWith(".json") ? JSONL : CSV;
+		}
+	}
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private static final String CSV_HEADER = "Id,Name,Email,BirthDate,BaseSalary,DepartmentId,Department\n";
+
+	private final SellerService service;
+
+	public SellerExporter(SellerService service) {
+		this.service = service;
+	}
+
+	public static boolean isGzipFileName(String fileName) {
+		return fileName.toLowerCase().endsWith(".gz");
+	}
+
+	// format and compression from the file name
+	public long export(Path target) {
+		String fileName = target.getFileName().toString();
+		return export(target, Format.forFileName(fileName), isGzipFileName(fileName));
+	}
+
+	// Blocks until every row is written and returns the number of rows; run
+	// it off the JavaFX thread.
+	public long export(Path target, Format format, boolean gzip) {
+		long[] rows = new long[1];
+		try (ChannelOutput out = new ChannelOutput(target, gzip)) {
+			if (format == Format.CSV) {
+				out.writeAscii(CSV_HEADER);
+			}
+			service.forEachRow(row -> {
+				try {
+					if (format == Format.CSV) {
+						writeCsv(out, row);
+					} else {
+						writeJson(out, row);
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e.getMessage(), e);
+				}
+				rows[0]++;
+			});
+			out.commit();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e.getMessage(), e);
+		}
+		return rows[0];
+	}
+
+	private static void writeCsv(ChannelOutput out, SellerRow row) throws IOException {
+		out.writeLong(row.getId());
+		out.write(',');
+		writeCsvText(out, row.getName());
+		out.write(',');
+		writeCsvText(out, row.getEmail());
+		out.write(',');
+		if (row.getBirthEpochDay() != SellerTable.NO_DATE) {
+			out.writeIsoDate(row.getBirthEpochDay());
+		}
+		out.write(',');
+		out.writeFixed2(row.getBaseSalary());
+		out.write(',');
+		out.writeLong(row.getDepartment().getId());
+		out.write(',');
+		writeCsvText(out, row.getDepartment().getName());
+		out.write('\n');
+	}
+
+	private static void writeJson(ChannelOutput out, SellerRow row) throws IOException {
+		out.writeAscii("{\"id\":");
+		out.writeLong(row.getId());
+		out.writeAscii(",\"name\":");
+		writeJsonText(out, row.getName());
+		out.writeAscii(",\"email\":");
+		writeJsonText(out, row.getEmail());
+		out.writeAscii(",\"birthDate\":");
+		if (row.getBirthEpochDay() == SellerTable.NO_DATE) {
+			out.writeAscii("null");
+		} else {
+			out.write('"');
+			out.writeIsoDate(row.getBirthEpochDay());
+			out.write('"');
+		}
+		out.writeAscii(",\"baseSalary\":");
+		out.writeFixed2(row.getBaseSalary());
+		out.writeAscii(",\"department\":{\"id\":");
+		out.writeLong(row.getDepartment().getId());
+		out.writeAscii(",\"name\":");
+		writeJsonText(out, row.getDepartment().getName());
+		out.writeAscii("}}\n");
+	}
+
+	// quoted only when needed (RFC 4180)
+	private static void writeCsvText(ChannelOutput out, String s) throws IOException {
+		if (s == null) {
+			return;
+		}
+		boolean quote = false;
+		for (int i = 0; i < s.length() && !quote; i++) {
+			char c = s.charAt(i);
+			quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+		}
+		if (quote) {
+			out.write('"');
+		}
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '"') {
+				out.write('"');
+			}
+			i = writeChar(out, s, i);
+		}
+		if (quote) {
+			out.write('"');
+		}
+	}
+
+	private static void writeJsonText(ChannelOutput out, String s) throws IOException {
+		if (s == null) {
+			out.writeAscii("null");
+			return;
+		}
+		out.write('"');
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '"' || c == '\\') {
+				out.write('\\');
+				out.write(c);
+			} else if (c == '\n') {
+				out.writeAscii("\\n");
+			} else if (c == '\r') {
+				out.writeAscii("\\r");
+			} else if (c == '\t') {
+				out.writeAscii("\\t");
+			} else if (c < 0x20) {
+				out.writeAscii("\\u00");
+				out.write(HEX[c >> 4]);
+				out.write(HEX[c & 0xF]);
+			} else {
+				i = writeChar(out, s, i);
+			}
+		}
+		out.write('"');
+	}
+
+	// Writes s.charAt(i) as UTF-8 and returns the index of the last char used
+	// (a surrogate pair takes two). A lone surrogate is written as '?'.
+	private static int writeChar(ChannelOutput out, String s, int i) throws IOException {
+		char c = s.charAt(i);
+		if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+			out.writeUtf8CodePoint(Character.toCodePoint(c, s.charAt(i + 1)));
+			return i + 1;
+		}
+		out.writeUtf8(Character.isSurrogate(c) ? '?' : c);
+		return i;
+	}
+
+	private static String stripGzip(String fileName) {
+		return isGzipFileName(fileName) ? fileName.substring(0, fileName.length() - 3) : fileName;
+	}
+}
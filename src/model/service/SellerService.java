@@ -1,29 +1,180 @@
 package model.service;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
+import model.analytics.SellerAnalytics;
+import model.analytics.SellerReport;
+import db.DBBatch;
 import model.dao.DaoFactory;
+import model.dao.Page;
+import model.dao.SellerCriteria;
 import model.dao.SellerDao;
+import model.dao.SellerRow;
+import model.dao.impl.CachingSellerDao;
+import model.entities.Department;
+import model.entities.DepartmentSalaryStats;
 import model.entities.Seller;
+import model.entities.SellerTable;
 
 public class SellerService {
 	
 	private SellerDao dao = DaoFactory.createSellerDao();
 	
+	private DepartmentSalaryAggregates aggregates = DepartmentSalaryAggregates.getInstance();
+	
+	// Single writes read the old row, write and update the aggregates as one
+	// step, so two edits of the same seller can't apply their deltas out of order.
+	private static final ReentrantLock writeLock = new ReentrantLock();
+	
 	public List<Seller> findAll() {
 		return dao.findAll();
 	}
 	
+	// For exports and batch jobs: rows are handed to action as they are read.
+	public void forEach(Consumer<? super Seller> action) {
+		dao.forEach(action);
+	}
+	
+	public void forEachRow(Consumer<? super SellerRow> action) {
+		dao.forEachRow(action);
+	}
+	
+	// Every seller in a compact column layout, for large lists and analytics.
+	public SellerTable findAllAsTable() {
+		return dao.findAllAsTable();
+	}
+	
+	// Percentiles, age/department histogram and salary outliers (Tukey's fences, k = 1.5)
+	// over every seller, computed in parallel on the common ForkJoinPool.
+	public SellerReport analyze() {
+		return new SellerAnalytics().analyze(findAllAsTable(), LocalDate.now(), 1.5);
+	}
+	
+	// Keyset paging: pass null to get the first page, then page.getLast().
+	public Page<Seller> findPage(Seller after, int pageSize, boolean countTotal) {
+		return dao.findPage(after, pageSize, countTotal);
+	}
+	
+	public Page<Seller> findPageByDepartment(Department department, Seller after, int pageSize, boolean countTotal) {
+		return dao.findPageByDepartment(department, after, pageSize, countTotal);
+	}
+	
+	// Filtered query run by the database; see SellerCriteria.
+	public List<Seller> search(SellerCriteria criteria) {
+		return dao.search(criteria);
+	}
+	
+	public int count(SellerCriteria criteria) {
+		return dao.count(criteria);
+	}
+	
+	public Seller findById(Integer id) {
+		return dao.findById(id);
+	}
+	
+	public String getCacheStats() {
+		if(dao instanceof CachingSellerDao) {
+			return ((CachingSellerDao) dao).getStats();
+		}
+		return "SellerCache [disabled]";
+	}
+	
 	// Aula 277
 	public void saveOrUpdate(Seller obj) {
-		if(obj.getId() == null) {
-			dao.insert(obj);
-		} else {
-			dao.update(obj);
+		writeLock.lock();
+		try {
+			if(obj.getId() == null) {
+				dao.insert(obj);
+				aggregates.added(obj);
+			} else {
+				Seller before = dao.findById(obj.getId());
+				dao.update(obj);
+				aggregates.updated(before, obj);
+			}
+		} finally {
+			writeLock.unlock();
 		}
 	}
 	
+	// Bulk version of saveOrUpdate: new rows go through dao.insertAll and the
+	// others through dao.updateAll. Errors are reported by position in list.
+	public void saveOrUpdateAll(List<Seller> list) {
+		// too many rows to track one by one: the next read rebuilds the aggregates
+		DBBatch.saveOrUpdateAll(list, obj -> obj.getId() == null, rows -> {
+			try {
+				dao.insertAll(rows);
+			} finally {
+				aggregates.invalidate();
+			}
+		}, rows -> {
+			try {
+				dao.updateAll(rows);
+			} finally {
+				aggregates.invalidate();
+			}
+		}, "Some sellers could not be saved.");
+	}
+	
 	public void remove(Seller obj) {
-		dao.deleteById(obj.getId());
+		writeLock.lock();
+		try {
+			Seller before = dao.findById(obj.getId());
+			dao.deleteById(obj.getId());
+			aggregates.removed(before);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+	
+	// Salary summary per department, from the in-memory aggregates.
+	public List<DepartmentSalaryStats> findSalaryStatsByDepartment() {
+		return aggregates.getAll();
+	}
+	
+	public void rebuildSalaryStats() {
+		aggregates.rebuild();
+	}
+	
+	// Async variants run on ServiceExecutor; use them from the JavaFX thread.
+	public CompletableFuture<List<Seller>> findAllAsync() {
+		return ServiceExecutor.supplyAsync(this::findAll);
+	}
+	
+	public CompletableFuture<List<Seller>> searchAsync(SellerCriteria criteria) {
+		return ServiceExecutor.supplyAsync(() -> search(criteria));
+	}
+	
+	public CompletableFuture<Integer> countAsync(SellerCriteria criteria) {
+		return ServiceExecutor.supplyAsync(() -> count(criteria));
+	}
+	
+	public CompletableFuture<Seller> saveOrUpdateAsync(Seller obj) {
+		return ServiceExecutor.supplyAsync(() -> {
+			saveOrUpdate(obj);
+			return obj;
+		});
+	}
+	
+	public CompletableFuture<Void> removeAsync(Seller obj) {
+		return ServiceExecutor.runAsync(() -> remove(obj));
+	}
+	
+	public CompletableFuture<SellerReport> analyzeAsync() {
+		return ServiceExecutor.supplyAsync(this::analyze);
+	}
+	
+	public CompletableFuture<List<DepartmentSalaryStats>> findSalaryStatsByDepartmentAsync() {
+		return ServiceExecutor.supplyAsync(this::findSalaryStatsByDepartment);
+	}
+	
+	public CompletableFuture<List<DepartmentSalaryStats>> rebuildSalaryStatsAsync() {
+		return ServiceExecutor.supplyAsync(() -> {
+			rebuildSalaryStats();
+			return findSalaryStatsByDepartment();
+		});
 	}
-}
+}
\ No newline at end of file
@@ -0,0 +1,78 @@
+package model.service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import model.entities.Department;
+import model.entities.Seller;
+import model.exceptions.ValidationException;
+
+/*
+ * The rules of the seller form, shared by SellerFormController and the CSV
+ * import. Errors are keyed by field name ("name", "email", "birthDate",
+ * "baseSalary") like the form's error labels.
+ */
+public class SellerValidator {
+
+	public static final int NAME_MAX_LENGTH = 70;
+	public static final int EMAIL_MAX_LENGTH = 60;
+
+	public static Seller validate(Integer id, String name, String email, LocalDate birthDate, String baseSalary,
+			Department department) {
+		Seller obj = new Seller();
+
+		ValidationException exception = new ValidationException("Validation error.");
+
+		obj.setId(id);
+
+		if(isBlank(name)) {
+			exception.addError("name", "Field can't be empty.");
+		} else if(name.length() > NAME_MAX_LENGTH) {
+			exception.addError("name", "Field can't be longer than " + NAME_MAX_LENGTH + " characters.");
+		}
+		obj.setName(name);
+
+		if(isBlank(email)) {
+			exception.addError("email", "Field can't be empty.");
+		} else if(email.length() > EMAIL_MAX_LENGTH) {
+			exception.addError("email", "Field can't be longer than " + EMAIL_MAX_LENGTH + " characters.");
+		}
+		obj.setEmail(email);
+
+		if(birthDate == null) {
+			exception.addError("birthDate", "Field can't be empty.");
+		} else {
+			obj.setBirthDate(Date.from(birthDate.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+		}
+
+		if(isBlank(baseSalary)) {
+			exception.addError("baseSalary", "Field can't be empty.");
+		} else {
+			obj.setBaseSalary(parseDouble(baseSalary.trim()));
+			if(obj.getBaseSalary() == null) {
+				exception.addError("baseSalary", "Invalid number.");
+			}
+		}
+
+		obj.setDepartment(department);
+
+		if(exception.getErrors().size() > 0) {
+			throw exception;
+		}
+
+		return obj;
+	}
+
+	private static boolean isBlank(String s) {
+		return s == null || s.trim().equals("");
+	}
+
+	private static Double parseDouble(String s) {
+		try {
+			return Double.parseDouble(s);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package model.service;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import db.DB;
+import db.DBException;
+
+/*
+ * Runs the *Async service methods, so the JavaFX Application Thread never
+ * waits on the database. service.executor in db.properties selects the mode:
+ *  - platform (default): bounded pool sized by service.threads/service.queueSize
+ *  - virtual: one virtual thread per call (Java 21+), with at most
+ *    pool.maxSize calls inside the DAOs at once so they can't overrun the
+ *    connection pool. service.tracePinnedThreads=true turns on the JDK's
+ *    report of virtual threads pinned inside synchronized driver code.
+ */
+public class ServiceExecutor {
+
+	private static ExecutorService executor;
+
+	private static volatile Semaphore limiter;
+
+	private static final AtomicInteger active = new AtomicInteger();
+	private static final AtomicInteger peakActive = new AtomicInteger();
+	private static final AtomicLong completed = new AtomicLong();
+	private static final AtomicLong limiterWaits = new AtomicLong();
+	private static final AtomicLong limiterWaitNanos = new AtomicLong();
+
+	public static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			String mode = DB.getProperties().getProperty("service.executor", "platform").trim();
+			if (mode.equalsIgnoreCase("virtual")) {
+				executor = newVirtualThreadExecutor();
+			}
+			if (executor == null) {
+				executor = newPlatformThreadExecutor();
+			}
+		}
+		return executor;
+	}
+
+	public static synchronized boolean isVirtual() {
+		return limiter != null;
+	}
+
+	private static ExecutorService newVirtualThreadExecutor() {
+		if (Boolean.parseBoolean(DB.getProperties().getProperty("service.tracePinnedThreads", "false"))) {
+			// read by the JDK when the first virtual thread is created
+			System.setProperty("jdk.tracePinnedThreads", "short");
+		}
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			ExecutorService virtualExecutor = (ExecutorService) factory.invoke(null);
+			limiter = new Semaphore(Math.max(1, DB.getIntProperty("pool.maxSize", 10)), true);
+			return virtualExecutor;
+		} catch (ReflectiveOperationException e) {
+			System.err.println("Virtual threads are not available on Java " + Runtime.version()
+					+ ", using platform threads.");
+			return null;
+		}
+	}
+
+	private static ExecutorService newPlatformThreadExecutor() {
+		int threads = Math.max(1, DB.getIntProperty("service.threads", 4));
+		int queueSize = Math.max(1, DB.getIntProperty("service.queueSize", 100));
+		AtomicInteger count = new AtomicInteger();
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(queueSize), r -> {
+					Thread t = new Thread(r, "service-worker-" + count.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				});
+		pool.allowCoreThreadTimeOut(true);
+		return pool;
+	}
+
+	public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+		try {
+			ExecutorService target = getExecutor();
+			return CompletableFuture.supplyAsync(tracked(supplier), target);
+		} catch (RejectedExecutionException e) {
+			return CompletableFuture.failedFuture(new DBException("Too many pending database operations."));
+		}
+	}
+
+	public static CompletableFuture<Void> runAsync(Runnable action) {
+		try {
+			ExecutorService target = getExecutor();
+			Supplier<Void> task = tracked(() -> {
+				action.run();
+				return null;
+			});
+			return CompletableFuture.runAsync(task::get, target);
+		} catch (RejectedExecutionException e) {
+			return CompletableFuture.failedFuture(new DBException("Too many pending database operations."));
+		}
+	}
+
+	private static <T> Supplier<T> tracked(Supplier<T> supplier) {
+		Semaphore permits = limiter;
+		return () -> {
+			if (permits != null) {
+				acquire(permits);
+			}
+			peakActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+			try {
+				return supplier.get();
+			} finally {
+				active.decrementAndGet();
+				completed.incrementAndGet();
+				if (permits != null) {
+					permits.release();
+				}
+			}
+		};
+	}
+
+	private static void acquire(Semaphore permits) {
+		if (permits.tryAcquire()) {
+			return;
+		}
+		long start = System.nanoTime();
+		limiterWaits.incrementAndGet();
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DBException("Interrupted while waiting for a database slot.");
+		} finally {
+			limiterWaitNanos.addAndGet(System.nanoTime() - start);
+		}
+	}
+
+	public static String getStats() {
+		long waits = limiterWaits.get();
+		return "ServiceExecutor [mode=" + (isVirtual() ? "virtual" : "platform") + ", active=" + active.get()
+				+ ", peakActive=" + peakActive.get() + ", completed=" + completed.get() + ", limiterWaits=" + waits
+				+ ", avgLimiterWaitMs="
+				+ String.format("%.3f", waits == 0 ? 0.0 : limiterWaitNanos.get() / (waits * 1_000_000.0)) + "]";
+	}
+
+	public static synchronized void shutdown() {
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+			limiter = null;
+		}
+	}
+}